@@ -14,12 +14,20 @@ CREATE TABLE IF NOT EXISTS usuarios (
     ativo BOOLEAN NOT NULL DEFAULT true,
     conta_nao_expirada BOOLEAN NOT NULL DEFAULT true,
     conta_nao_bloqueada BOOLEAN NOT NULL DEFAULT true,
+    bloqueado_ate TIMESTAMP,
     credencial_nao_expirada BOOLEAN NOT NULL DEFAULT true,
     criado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     ultimo_login TIMESTAMP,
+    versao_seguranca INTEGER NOT NULL DEFAULT 0,
     CONSTRAINT check_role CHECK (role IN ('USUARIO', 'ADMIN', 'MODERADOR'))
     );
 
+-- Bancos criados antes da claim de versão de segurança nos tokens
+ALTER TABLE usuarios ADD COLUMN IF NOT EXISTS versao_seguranca INTEGER NOT NULL DEFAULT 0;
+
+-- Bancos criados antes do bloqueio automático com prazo
+ALTER TABLE usuarios ADD COLUMN IF NOT EXISTS bloqueado_ate TIMESTAMP;
+
 -- Criar índices para performance
 CREATE INDEX IF NOT EXISTS idx_usuarios_username ON usuarios(username);
 CREATE INDEX IF NOT EXISTS idx_usuarios_email ON usuarios(email);
@@ -39,7 +47,7 @@ INSERT INTO usuarios (username, email, password, role, ativo) VALUES
 -- Criar tabela de logs de auditoria (opcional)
 CREATE TABLE IF NOT EXISTS audit_logs (
                                           id BIGSERIAL PRIMARY KEY,
-                                          user_id BIGINT REFERENCES users(id),
+                                          user_id BIGINT REFERENCES usuarios(id) ON DELETE SET NULL,
     action VARCHAR(50) NOT NULL,
     details TEXT,
     ip_address INET,
@@ -51,6 +59,33 @@ CREATE INDEX IF NOT EXISTS idx_audit_logs_user_id ON audit_logs(user_id);
 CREATE INDEX IF NOT EXISTS idx_audit_logs_timestamp ON audit_logs(timestamp);
 CREATE INDEX IF NOT EXISTS idx_audit_logs_action ON audit_logs(action);
 
+-- Refresh tokens: só o hash SHA-256 é gravado; tokens de um mesmo login compartilham a família
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+                                              id BIGSERIAL PRIMARY KEY,
+                                              token_hash VARCHAR(64) UNIQUE NOT NULL,
+    usuario_id BIGINT NOT NULL REFERENCES usuarios(id) ON DELETE CASCADE,
+    familia VARCHAR(36) NOT NULL,
+    versao_seguranca INTEGER NOT NULL,
+    criado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expira_em TIMESTAMP NOT NULL,
+    usado_em TIMESTAMP,
+    revogado BOOLEAN NOT NULL DEFAULT false
+    );
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_familia ON refresh_tokens(familia);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expira_em ON refresh_tokens(expira_em);
+
+-- Access tokens revogados no logout, por jti, até o vencimento de cada um
+CREATE TABLE IF NOT EXISTS tokens_revogados (
+                                                jti VARCHAR(36) PRIMARY KEY,
+    usuario_id BIGINT REFERENCES usuarios(id) ON DELETE CASCADE,
+    expira_em TIMESTAMP NOT NULL,
+    revogado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    );
+
+CREATE INDEX IF NOT EXISTS idx_tokens_revogados_expira_em ON tokens_revogados(expira_em);
+CREATE INDEX IF NOT EXISTS idx_tokens_revogados_revogado_em ON tokens_revogados(revogado_em);
+
 -- Criar view para relatórios de usuários
 CREATE OR REPLACE VIEW user_stats AS
 SELECT
@@ -58,7 +93,7 @@ SELECT
     COUNT(*) as total_users,
     COUNT(CASE WHEN ativo = true THEN 1 END) as active_users,
     COUNT(CASE WHEN ultimo_login >= CURRENT_DATE - INTERVAL '30 days' THEN 1 END) as recent_logins
-FROM users
+FROM usuarios
 GROUP BY role;
 
 -- Comentários para documentação
@@ -68,6 +103,9 @@ COMMENT ON COLUMN usuarios.email IS 'Email único do usuário';
 COMMENT ON COLUMN usuarios.password IS 'Senha criptografada com BCrypt';
 COMMENT ON COLUMN usuarios.role IS 'Papel do usuário no sistema (USER, ADMIN, MODERATOR)';
 COMMENT ON COLUMN usuarios.ultimo_login IS 'Timestamp do último login realizado';
+COMMENT ON COLUMN usuarios.versao_seguranca IS 'Incrementada em mudanças de papel, senha, bloqueio ou ativação; invalida tokens emitidos antes';
 
+COMMENT ON TABLE refresh_tokens IS 'Refresh tokens opacos (hash), rotacionados a cada uso com detecção de reuso por família';
+COMMENT ON TABLE tokens_revogados IS 'Access tokens revogados ainda válidos; linhas vencidas são removidas periodicamente';
 COMMENT ON TABLE audit_logs IS 'Logs de auditoria para rastreamento de ações';
 COMMENT ON VIEW user_stats IS 'Estatísticas agregadas de usuários por papel';
\ No newline at end of file
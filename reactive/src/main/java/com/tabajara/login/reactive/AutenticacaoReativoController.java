@@ -0,0 +1,169 @@
+package com.tabajara.login.reactive;
+
+import com.tabajara.login.dto.LoginRequest;
+import com.tabajara.login.dto.LoginResponse;
+import com.tabajara.login.dto.RegisterRequest;
+import com.tabajara.login.model.Role;
+import com.tabajara.login.security.JwtTokenProvider;
+import com.tabajara.login.security.TokenVerificado;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mesmo contrato JSON do {@code AutenticacaoController} para login, registro
+ * e perfil, sem bloquear threads: banco via R2DBC e hash de senha no
+ * {@link HashSenhaReativo}.
+ *
+ * Limitação de tentativas, auditoria, refresh tokens e logout continuam só na
+ * aplicação principal; aqui o login devolve apenas o access token. Tokens
+ * revogados lá são recusados aqui pelo {@link AutenticacaoWebFilter}.
+ */
+@RestController
+@RequestMapping("/api/auth")
+public class AutenticacaoReativoController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutenticacaoReativoController.class);
+
+    private final UsuarioReativoRepository usuarioRepository;
+    private final HashSenhaReativo hashSenha;
+    private final JwtTokenProvider tokenProvider;
+
+    @Autowired
+    public AutenticacaoReativoController(UsuarioReativoRepository usuarioRepository,
+                                         HashSenhaReativo hashSenha,
+                                         JwtTokenProvider tokenProvider) {
+        this.usuarioRepository = usuarioRepository;
+        this.hashSenha = hashSenha;
+        this.tokenProvider = tokenProvider;
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest loginRequest) {
+        return usuarioRepository.buscaPorUsernameOuEmail(loginRequest.getUsername())
+                .flatMap(usuario -> autentica(usuario, loginRequest.getPassword()))
+                .switchIfEmpty(Mono.defer(() -> hashSenha.confereFicticio(loginRequest.getPassword())
+                        .then(Mono.<UsuarioReativo>error(new CredenciaisInvalidasException("Bad credentials")))))
+                .<ResponseEntity<?>>map(usuario -> {
+                    usuarioRepository.registraUltimoLogin(usuario.getId(), LocalDateTime.now())
+                            .subscribe(null, erro -> logger.warn("Falha ao gravar ultimo_login de {}: {}",
+                                    usuario.getId(), erro.getMessage()));
+                    return ResponseEntity.ok(new LoginResponse(
+                            tokenProvider.generateToken(usuario),
+                            usuario.getUsername(),
+                            usuario.getEmail(),
+                            usuario.getRole(),
+                            tokenProvider.getTempoExpiracao()));
+                })
+                .onErrorResume(CredenciaisInvalidasException.class, e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                .body(Map.of("error", "Credenciais inválidas", "message", e.getMessage()))));
+    }
+
+    // Mesma ordem e mensagens do DaoAuthenticationProvider: estado da conta antes da senha
+    private Mono<UsuarioReativo> autentica(UsuarioReativo usuario, String senha) {
+        if (!usuario.isAccountNonLocked()) {
+            return Mono.error(new CredenciaisInvalidasException("User account is locked"));
+        }
+        if (!usuario.isEnabled()) {
+            return Mono.error(new CredenciaisInvalidasException("User is disabled"));
+        }
+        if (!usuario.isAccountNonExpired()) {
+            return Mono.error(new CredenciaisInvalidasException("User account has expired"));
+        }
+        return hashSenha.confere(senha, usuario.getPassword())
+                .flatMap(confere -> {
+                    if (!confere) {
+                        return Mono.error(new CredenciaisInvalidasException("Bad credentials"));
+                    }
+                    if (!usuario.isCredentialsNonExpired()) {
+                        return Mono.error(new CredenciaisInvalidasException("User credentials have expired"));
+                    }
+                    return Mono.just(usuario);
+                });
+    }
+
+    @PostMapping("/register")
+    public Mono<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequest registerRequest) {
+        return hashSenha.codifica(registerRequest.getPassword())
+                .flatMap(hash -> usuarioRepository.insere(
+                        registerRequest.getUsername(), registerRequest.getEmail(), hash, Role.USUARIO))
+                .<ResponseEntity<?>>map(id -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(Map.of("message", "Usuário registrado com sucesso", "username", registerRequest.getUsername())))
+                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                                .body(Map.of("error", "Erro no registro", "message", mensagemConflito(e)))));
+    }
+
+    // A mensagem do banco traz SQL e valores; a única violação possível aqui é a unicidade de username ou email
+    private static String mensagemConflito(DataIntegrityViolationException e) {
+        logger.debug("Registro recusado pelo banco: {}", e.getMostSpecificCause().getMessage());
+        return "Username ou email já está em uso!";
+    }
+
+    @GetMapping("/profile")
+    public Mono<ResponseEntity<?>> getProfile(ServerWebExchange exchange) {
+        TokenVerificado token = exchange.getAttribute(AutenticacaoWebFilter.ATRIBUTO_TOKEN);
+        if (token == null) {
+            return Mono.just(naoAutorizado(exchange, "Full authentication is required to access this resource"));
+        }
+
+        Mono<UsuarioReativo> usuario = token.autocontido()
+                ? usuarioRepository.buscaPorId(token.userId())
+                : usuarioRepository.buscaPorUsernameOuEmail(token.username());
+        return usuario
+                .<ResponseEntity<?>>map(encontrado -> {
+                    // A linha já foi lida: a versão de segurança é conferida sem cache
+                    if (token.autocontido() && encontrado.getVersaoSeguranca() != token.versao()) {
+                        return naoAutorizado(exchange, "Token revogado por alteração na conta");
+                    }
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("username", encontrado.getUsername());
+                    response.put("email", encontrado.getEmail());
+                    response.put("role", encontrado.getRole());
+                    response.put("criadoEm", encontrado.getCriadoEm());
+                    response.put("ultimoLogin", encontrado.getUltimoLogin());
+                    return ResponseEntity.ok(response);
+                })
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Usuário não encontrado", "username", token.username())));
+    }
+
+    @GetMapping("/health")
+    public Mono<Map<String, String>> healthCheck() {
+        return Mono.just(Map.of(
+                "status", "UP",
+                "service", "Auth Service (reactive)",
+                "message", "Auth Service is running!",
+                "timestamp", String.valueOf(System.currentTimeMillis())
+        ));
+    }
+
+    // Mesmo corpo do JwtAuthenticationEntryPoint
+    private static ResponseEntity<?> naoAutorizado(ServerWebExchange exchange, String mensagem) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpStatus.UNAUTHORIZED.value());
+        body.put("error", "Unauthorized");
+        body.put("message", mensagem);
+        body.put("path", exchange.getRequest().getPath().value());
+        body.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(body);
+    }
+
+    static class CredenciaisInvalidasException extends RuntimeException {
+        CredenciaisInvalidasException(String message) {
+            super(message);
+        }
+    }
+}
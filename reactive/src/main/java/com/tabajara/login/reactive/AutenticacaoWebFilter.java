@@ -0,0 +1,99 @@
+package com.tabajara.login.reactive;
+
+import com.tabajara.login.security.JwtTokenProvider;
+import com.tabajara.login.security.MetricasAutenticacao;
+import com.tabajara.login.security.TokenVerificado;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Verifica o Bearer token e, se válido, deixa o {@link TokenVerificado} nos
+ * atributos da requisição; quem exige autenticação é o endpoint.
+ *
+ * A assinatura é conferida no próprio event loop (só CPU). Depois, como no
+ * {@code JwtAuthenticationFilter}, o token é recusado se o {@code jti} estiver
+ * em {@code tokens_revogados} ou se a conta estiver inativa, bloqueada ou com
+ * outra versão de segurança (troca de senha, mudança de papel). Essas
+ * informações vêm de uma única consulta R2DBC, sem cache: a aplicação
+ * principal é quem revoga, e aqui não há como receber a invalidação.
+ */
+@Component
+public class AutenticacaoWebFilter implements WebFilter {
+
+    static final String ATRIBUTO_TOKEN = TokenVerificado.class.getName();
+
+    private static final Logger logger = LoggerFactory.getLogger(AutenticacaoWebFilter.class);
+
+    private final JwtTokenProvider tokenProvider;
+    private final UsuarioReativoRepository usuarioRepository;
+    private final Counter revogados;
+    private final Counter versaoObsoleta;
+
+    @Autowired
+    public AutenticacaoWebFilter(JwtTokenProvider tokenProvider,
+                                 UsuarioReativoRepository usuarioRepository,
+                                 MeterRegistry meterRegistry) {
+        this.tokenProvider = tokenProvider;
+        this.usuarioRepository = usuarioRepository;
+        this.revogados = MetricasAutenticacao.tokenRejeitado(meterRegistry, "revoked");
+        this.versaoObsoleta = MetricasAutenticacao.tokenRejeitado(meterRegistry, "stale_version");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String bearerToken = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (bearerToken == null || !bearerToken.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        TokenVerificado token;
+        try {
+            token = tokenProvider.verificaToken(bearerToken.substring(7));
+        } catch (JwtException | IllegalArgumentException ex) {
+            logger.debug("Token JWT rejeitado: {}", ex.getMessage());
+            return chain.filter(exchange);
+        }
+
+        return vigente(token)
+                .doOnNext(valido -> {
+                    if (valido) {
+                        exchange.getAttributes().put(ATRIBUTO_TOKEN, token);
+                    }
+                })
+                .then(chain.filter(exchange));
+    }
+
+    private Mono<Boolean> vigente(TokenVerificado token) {
+        if (!token.autocontido()) {
+            // Token emitido antes das claims de usuário: sem jti nem versão, só o estado da conta
+            return usuarioRepository.buscaPorUsernameOuEmail(token.username())
+                    .map(usuario -> usuario.isEnabled() && usuario.isAccountNonLocked())
+                    .defaultIfEmpty(false);
+        }
+        return usuarioRepository.estadoToken(token.userId(), token.jti())
+                .map(estado -> {
+                    if (estado.revogado()) {
+                        revogados.increment();
+                        logger.debug("Token JWT revogado para {}", token.username());
+                        return false;
+                    }
+                    if (!estado.habilitado() || !token.versao().equals(estado.versaoSeguranca())) {
+                        versaoObsoleta.increment();
+                        logger.debug("Token JWT com versão de segurança obsoleta para {}", token.username());
+                        return false;
+                    }
+                    return true;
+                })
+                .defaultIfEmpty(false);
+    }
+}
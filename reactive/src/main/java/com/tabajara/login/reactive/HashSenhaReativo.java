@@ -0,0 +1,81 @@
+package com.tabajara.login.reactive;
+
+import com.tabajara.login.exception.ServicoSobrecarregadoException;
+import com.tabajara.login.security.CalibradorHashSenha;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Hash e verificação de senhas fora do event loop, em um {@link Scheduler}
+ * com threads e fila limitadas: o equivalente reativo do {@code HashSenhaExecutor}.
+ *
+ * As threads do Netty nunca executam BCrypt. Com a fila cheia, ou passada a
+ * espera máxima, a operação falha com {@link ServicoSobrecarregadoException}
+ * (503 com {@code Retry-After}), igual à aplicação principal.
+ */
+@Component
+public class HashSenhaReativo {
+
+    private final PasswordEncoder encoder;
+    private final String hashFicticio;
+    private final Scheduler scheduler;
+    private final Duration esperaMaxima;
+    private final long retryAfterSegundos;
+
+    @Autowired
+    public HashSenhaReativo(CalibradorHashSenha calibradorHashSenha,
+                            @Value("${password.hashing.threads:0}") int threads,
+                            @Value("${password.hashing.queue-capacity:64}") int capacidadeFila,
+                            @Value("${password.hashing.max-wait-ms:5000}") long esperaMaximaMs,
+                            @Value("${password.hashing.retry-after-seconds:1}") long retryAfterSegundos) {
+        this.encoder = calibradorHashSenha.cria();
+        // Mesmo algoritmo e custo dos hashes reais, como o userNotFoundEncodedPassword do DaoAuthenticationProvider
+        this.hashFicticio = encoder.encode(UUID.randomUUID().toString());
+        int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.scheduler = Schedulers.newBoundedElastic(tamanho, capacidadeFila, "password-hash", 60, true);
+        this.esperaMaxima = Duration.ofMillis(esperaMaximaMs);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public Mono<String> codifica(String senha) {
+        return executa(() -> encoder.encode(senha));
+    }
+
+    public Mono<Boolean> confere(String senha, String hash) {
+        return executa(() -> encoder.matches(senha, hash));
+    }
+
+    /**
+     * Para logins inexistentes: o mesmo tempo de uma verificação real, para
+     * não revelar pela latência quais usuários existem.
+     */
+    public Mono<Boolean> confereFicticio(String senha) {
+        return confere(senha, hashFicticio);
+    }
+
+    private <T> Mono<T> executa(Callable<T> tarefa) {
+        return Mono.fromCallable(tarefa)
+                .subscribeOn(scheduler)
+                .timeout(esperaMaxima)
+                .onErrorMap(e -> e instanceof RejectedExecutionException || e instanceof TimeoutException,
+                        e -> new ServicoSobrecarregadoException(
+                                "Serviço de autenticação sobrecarregado, tente novamente", retryAfterSegundos));
+    }
+
+    @PreDestroy
+    public void encerra() {
+        scheduler.dispose();
+    }
+}
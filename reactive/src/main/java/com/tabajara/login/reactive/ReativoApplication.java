@@ -0,0 +1,21 @@
+package com.tabajara.login.reactive;
+
+import com.tabajara.login.security.CalibradorHashSenha;
+import com.tabajara.login.security.JwtKeyring;
+import com.tabajara.login.security.JwtTokenProvider;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Build reativo dos endpoints de autenticação. Os componentes de JWT e de
+ * hash de senha vêm da aplicação principal, fora deste pacote, e por isso são
+ * importados explicitamente em vez de encontrados pelo component scan.
+ */
+@SpringBootApplication
+@Import({JwtKeyring.class, JwtTokenProvider.class, CalibradorHashSenha.class})
+public class ReativoApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(ReativoApplication.class, args);
+    }
+}
@@ -0,0 +1,95 @@
+package com.tabajara.login.reactive;
+
+import com.tabajara.login.model.Role;
+import com.tabajara.login.security.IdentidadeToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Linha de {@code usuarios} lida via R2DBC. Implementa {@link IdentidadeToken}
+ * para que o {@code JwtTokenProvider} grave as mesmas claims que a aplicação
+ * principal.
+ */
+public final class UsuarioReativo implements UserDetails, IdentidadeToken {
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String password;
+    private final Role role;
+    private final boolean ativo;
+    private final boolean contaNaoExpirada;
+    private final boolean contaNaoBloqueada;
+    private final boolean credencialNaoExpirada;
+    private final LocalDateTime criadoEm;
+    private final LocalDateTime ultimoLogin;
+    private final int versaoSeguranca;
+
+    public UsuarioReativo(Long id, String username, String email, String password, Role role,
+                          boolean ativo, boolean contaNaoExpirada, boolean contaNaoBloqueada,
+                          boolean credencialNaoExpirada, LocalDateTime criadoEm, LocalDateTime ultimoLogin,
+                          int versaoSeguranca) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.password = password;
+        this.role = role;
+        this.ativo = ativo;
+        this.contaNaoExpirada = contaNaoExpirada;
+        this.contaNaoBloqueada = contaNaoBloqueada;
+        this.credencialNaoExpirada = credencialNaoExpirada;
+        this.criadoEm = criadoEm;
+        this.ultimoLogin = ultimoLogin;
+        this.versaoSeguranca = versaoSeguranca;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return role.getAuthorities();
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return contaNaoExpirada;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return contaNaoBloqueada;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return credencialNaoExpirada;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ativo;
+    }
+
+    public Long getId() { return id; }
+
+    public String getEmail() { return email; }
+
+    public Role getRole() { return role; }
+
+    public LocalDateTime getCriadoEm() { return criadoEm; }
+
+    public LocalDateTime getUltimoLogin() { return ultimoLogin; }
+
+    public int getVersaoSeguranca() { return versaoSeguranca; }
+}
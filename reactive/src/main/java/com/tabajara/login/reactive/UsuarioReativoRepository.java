@@ -0,0 +1,106 @@
+package com.tabajara.login.reactive;
+
+import com.tabajara.login.model.Role;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Acesso à tabela {@code usuarios} (schema do {@code init.sql}) via R2DBC,
+ * com SQL explícito no lugar das consultas derivadas do {@code UsuarioRepository}.
+ */
+@Repository
+public class UsuarioReativoRepository {
+
+    private static final String COLUNAS = "id, username, email, password, role, ativo, conta_nao_expirada, "
+            + "conta_nao_bloqueada, credencial_nao_expirada, criado_em, ultimo_login, versao_seguranca";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public UsuarioReativoRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<UsuarioReativo> buscaPorUsernameOuEmail(String login) {
+        return databaseClient.sql("SELECT " + COLUNAS + " FROM usuarios WHERE username = :login OR email = :login LIMIT 1")
+                .bind("login", login)
+                .map(UsuarioReativoRepository::usuario)
+                .one();
+    }
+
+    public Mono<UsuarioReativo> buscaPorId(Long id) {
+        return databaseClient.sql("SELECT " + COLUNAS + " FROM usuarios WHERE id = :id")
+                .bind("id", id)
+                .map(UsuarioReativoRepository::usuario)
+                .one();
+    }
+
+    /**
+     * Estado da conta que decide se um token autocontido ainda vale, em uma só
+     * consulta: versão de segurança, ativo/bloqueado e se o {@code jti} foi revogado.
+     *
+     * @return vazio se o usuário não existir mais
+     */
+    public Mono<EstadoToken> estadoToken(Long id, String jti) {
+        return databaseClient.sql("SELECT u.versao_seguranca, u.ativo, u.conta_nao_bloqueada, "
+                        + "EXISTS (SELECT 1 FROM tokens_revogados r WHERE r.jti = :jti) AS revogado "
+                        + "FROM usuarios u WHERE u.id = :id")
+                .bind("jti", jti != null ? jti : "")
+                .bind("id", id)
+                .map(linha -> new EstadoToken(
+                        linha.get("versao_seguranca", Integer.class),
+                        Boolean.TRUE.equals(linha.get("ativo", Boolean.class))
+                                && Boolean.TRUE.equals(linha.get("conta_nao_bloqueada", Boolean.class)),
+                        Boolean.TRUE.equals(linha.get("revogado", Boolean.class))))
+                .one();
+    }
+
+    /**
+     * @return id gerado; violações de unicidade chegam como {@code DataIntegrityViolationException}
+     */
+    public Mono<Long> insere(String username, String email, String hashSenha, Role role) {
+        return databaseClient.sql("INSERT INTO usuarios (username, email, password, role, ativo, conta_nao_expirada, "
+                        + "conta_nao_bloqueada, credencial_nao_expirada, criado_em, versao_seguranca) "
+                        + "VALUES (:username, :email, :password, :role, true, true, true, true, :criadoEm, 0)")
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bind("username", username)
+                .bind("email", email)
+                .bind("password", hashSenha)
+                .bind("role", role.name())
+                .bind("criadoEm", LocalDateTime.now())
+                .map(linha -> linha.get("id", Long.class))
+                .one();
+    }
+
+    public Mono<Void> registraUltimoLogin(Long id, LocalDateTime instante) {
+        return databaseClient.sql("UPDATE usuarios SET ultimo_login = :instante WHERE id = :id")
+                .bind("instante", instante)
+                .bind("id", id)
+                .then();
+    }
+
+    public record EstadoToken(Integer versaoSeguranca, boolean habilitado, boolean revogado) {
+    }
+
+    private static UsuarioReativo usuario(Readable linha) {
+        return new UsuarioReativo(
+                linha.get("id", Long.class),
+                linha.get("username", String.class),
+                linha.get("email", String.class),
+                linha.get("password", String.class),
+                Role.valueOf(linha.get("role", String.class)),
+                Boolean.TRUE.equals(linha.get("ativo", Boolean.class)),
+                Boolean.TRUE.equals(linha.get("conta_nao_expirada", Boolean.class)),
+                Boolean.TRUE.equals(linha.get("conta_nao_bloqueada", Boolean.class)),
+                Boolean.TRUE.equals(linha.get("credencial_nao_expirada", Boolean.class)),
+                linha.get("criado_em", LocalDateTime.class),
+                linha.get("ultimo_login", LocalDateTime.class),
+                linha.get("versao_seguranca", Integer.class)
+        );
+    }
+}
@@ -0,0 +1,129 @@
+package com.tabajara.login.reactive;
+
+import com.tabajara.login.security.JwtTokenProvider;
+import com.tabajara.login.security.TokenVerificado;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class AutenticacaoReativoControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void limpa() {
+        databaseClient.sql("DELETE FROM tokens_revogados").then().block();
+        databaseClient.sql("DELETE FROM usuarios").then().block();
+    }
+
+    @Test
+    void registroLoginEPerfil() {
+        String token = registraELoga("joao", "joao@exemplo.com");
+
+        client.get().uri("/api/auth/profile")
+                .header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.username").isEqualTo("joao")
+                .jsonPath("$.email").isEqualTo("joao@exemplo.com");
+    }
+
+    @Test
+    void loginDeUsuarioInexistenteERecusado() {
+        client.post().uri("/api/auth/login")
+                .bodyValue(Map.of("username", "ninguem", "password", "segredo1"))
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Bad credentials");
+    }
+
+    @Test
+    void registroDuplicadoNaoExpoeMensagemDoBanco() {
+        registra("joao", "joao@exemplo.com").expectStatus().isCreated();
+
+        registra("joao", "outro@exemplo.com")
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Username ou email já está em uso!");
+    }
+
+    @Test
+    void tokenRevogadoERecusado() {
+        String token = registraELoga("joao", "joao@exemplo.com");
+        TokenVerificado verificado = tokenProvider.verificaToken(token);
+
+        databaseClient.sql("INSERT INTO tokens_revogados (jti, usuario_id, expira_em) VALUES (:jti, :id, :expiraEm)")
+                .bind("jti", verificado.jti())
+                .bind("id", verificado.userId())
+                .bind("expiraEm", LocalDateTime.now().plusHours(1))
+                .then().block();
+
+        perfil(token).expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void contaBloqueadaRecusaTokenJaEmitido() {
+        String token = registraELoga("joao", "joao@exemplo.com");
+
+        databaseClient.sql("UPDATE usuarios SET conta_nao_bloqueada = false WHERE username = 'joao'").then().block();
+
+        perfil(token).expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void novaVersaoDeSegurancaRecusaTokenJaEmitido() {
+        String token = registraELoga("joao", "joao@exemplo.com");
+
+        databaseClient.sql("UPDATE usuarios SET versao_seguranca = versao_seguranca + 1 WHERE username = 'joao'")
+                .then().block();
+
+        perfil(token).expectStatus().isUnauthorized();
+    }
+
+    private WebTestClient.ResponseSpec registra(String username, String email) {
+        return client.post().uri("/api/auth/register")
+                .bodyValue(Map.of("username", username, "email", email, "password", "segredo1"))
+                .exchange();
+    }
+
+    private String registraELoga(String username, String email) {
+        registra(username, email).expectStatus().isCreated();
+
+        Map<?, ?> resposta = client.post().uri("/api/auth/login")
+                .bodyValue(Map.of("username", username, "password", "segredo1"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.OK)
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(resposta).isNotNull();
+        return (String) resposta.get("token");
+    }
+
+    private WebTestClient.ResponseSpec perfil(String token) {
+        return client.get().uri("/api/auth/profile")
+                .header("Authorization", "Bearer " + token)
+                .exchange();
+    }
+}
@@ -0,0 +1,25 @@
+-- Subconjunto do init.sql usado pelo build reativo
+CREATE TABLE IF NOT EXISTS usuarios (
+    id BIGSERIAL PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL DEFAULT 'USUARIO',
+    ativo BOOLEAN NOT NULL DEFAULT true,
+    conta_nao_expirada BOOLEAN NOT NULL DEFAULT true,
+    conta_nao_bloqueada BOOLEAN NOT NULL DEFAULT true,
+    bloqueado_ate TIMESTAMP,
+    credencial_nao_expirada BOOLEAN NOT NULL DEFAULT true,
+    criado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    ultimo_login TIMESTAMP,
+    versao_seguranca INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT usuarios_username_key UNIQUE (username),
+    CONSTRAINT usuarios_email_key UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS tokens_revogados (
+    jti VARCHAR(36) PRIMARY KEY,
+    usuario_id BIGINT REFERENCES usuarios(id) ON DELETE CASCADE,
+    expira_em TIMESTAMP NOT NULL,
+    revogado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,50 @@
+package com.tabajara.login.benchmark;
+
+import com.tabajara.login.model.Usuario;
+import com.tabajara.login.model.UsuarioSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code getAuthorities} é chamado em toda autorização; com {@code -prof gc}
+ * o esperado é zero bytes alocados por operação, já que a lista vem pronta do {@code Role}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthoritiesBenchmark {
+
+    private Usuario usuario;
+    private UsuarioSnapshot snapshot;
+
+    @Setup
+    public void setup() {
+        usuario = Fixtures.usuario();
+        snapshot = new UsuarioSnapshot(usuario);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> usuario() {
+        return usuario.getAuthorities();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> snapshot() {
+        return snapshot.getAuthorities();
+    }
+}
@@ -0,0 +1,142 @@
+package com.tabajara.login.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara dois resultados JMH em JSON ({@code -rf json}) e aponta regressões
+ * de tempo/vazão e de alocação ({@code gc.alloc.rate.norm}, com {@code -prof gc}).
+ *
+ * Uma diferença só conta como regressão se passar da tolerância e os
+ * intervalos de erro dos dois resultados não se sobrepuserem. Termina com
+ * código 1 se houver regressão, para uso em CI.
+ *
+ * <pre>
+ * cp target/jmh-result.json jmh-baseline.json        # antes da mudança
+ * mvn -Pbenchmark test-compile exec:exec@jmh          # depois da mudança
+ * mvn -Pbenchmark test-compile exec:exec@jmh-compara -Djmh.baseline=jmh-baseline.json
+ * </pre>
+ */
+public final class ComparaResultadosJmh {
+
+    private static final String ALOCACAO = "gc.alloc.rate.norm";
+    // Abaixo disso, diferenças de alocação são ruído de alinhamento
+    private static final double ALOCACAO_MINIMA_BYTES = 16;
+
+    private ComparaResultadosJmh() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: ComparaResultadosJmh <baseline.json> <atual.json> [tolerancia-%]");
+            System.exit(2);
+        }
+        double tolerancia = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+        Map<String, JsonNode> baseline = le(new File(args[0]));
+        Map<String, JsonNode> atual = le(new File(args[1]));
+
+        int regressoes = 0;
+        System.out.printf("%-70s %14s %14s %8s %12s %12s  %s%n",
+                "benchmark", "baseline", "atual", "delta", "B/op base", "B/op atual", "");
+        for (Map.Entry<String, JsonNode> entrada : atual.entrySet()) {
+            JsonNode depois = entrada.getValue();
+            JsonNode antes = baseline.get(entrada.getKey());
+            if (antes == null) {
+                System.out.printf("%-70s %14s %14.3f %8s%n", entrada.getKey(), "-", score(depois), "novo");
+                continue;
+            }
+
+            boolean maiorMelhor = depois.get("mode").asText().equals("thrpt");
+            double scoreAntes = score(antes);
+            double scoreDepois = score(depois);
+            double delta = (scoreDepois - scoreAntes) / scoreAntes;
+            boolean piorou = maiorMelhor ? delta < -tolerancia : delta > tolerancia;
+            boolean regrediuTempo = piorou && !sobrepoe(antes, depois);
+
+            Double alocAntes = alocacao(antes);
+            Double alocDepois = alocacao(depois);
+            boolean regrediuAlocacao = alocAntes != null && alocDepois != null
+                    && alocDepois - alocAntes > Math.max(ALOCACAO_MINIMA_BYTES, alocAntes * tolerancia);
+
+            String marca = regrediuTempo && regrediuAlocacao ? "REGRESSÃO (tempo, alocação)"
+                    : regrediuTempo ? "REGRESSÃO (tempo)"
+                    : regrediuAlocacao ? "REGRESSÃO (alocação)"
+                    : "";
+            if (!marca.isEmpty()) {
+                regressoes++;
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+7.1f%% %12s %12s  %s%n",
+                    entrada.getKey(), scoreAntes, scoreDepois, delta * 100,
+                    formata(alocAntes), formata(alocDepois), marca);
+        }
+        for (String chave : baseline.keySet()) {
+            if (!atual.containsKey(chave)) {
+                System.out.printf("%-70s %14.3f %14s %8s%n", chave, score(baseline.get(chave)), "-", "removido");
+            }
+        }
+
+        System.out.printf("%n%d regressão(ões) acima de %.0f%%%n", regressoes, tolerancia * 100);
+        System.exit(regressoes > 0 ? 1 : 0);
+    }
+
+    // Chave: benchmark, parâmetros e número de threads
+    private static Map<String, JsonNode> le(File arquivo) throws IOException {
+        Map<String, JsonNode> resultados = new LinkedHashMap<>();
+        for (JsonNode resultado : new ObjectMapper().readTree(arquivo)) {
+            StringBuilder chave = new StringBuilder(resultado.get("benchmark").asText()
+                    .replace("com.tabajara.login.benchmark.", ""));
+            JsonNode params = resultado.get("params");
+            if (params != null) {
+                Map<String, String> ordenados = new TreeMap<>();
+                params.fields().forEachRemaining(p -> ordenados.put(p.getKey(), p.getValue().asText()));
+                ordenados.forEach((nome, valor) -> chave.append(' ').append(nome).append('=').append(valor));
+            }
+            chave.append(" t=").append(resultado.get("threads").asInt());
+            resultados.put(chave.toString(), resultado);
+        }
+        return resultados;
+    }
+
+    private static double score(JsonNode resultado) {
+        return resultado.get("primaryMetric").get("score").asDouble();
+    }
+
+    private static boolean sobrepoe(JsonNode a, JsonNode b) {
+        double erroA = erro(a);
+        double erroB = erro(b);
+        return Math.abs(score(a) - score(b)) <= erroA + erroB;
+    }
+
+    // scoreError é NaN com uma única iteração
+    private static double erro(JsonNode resultado) {
+        double erro = resultado.get("primaryMetric").path("scoreError").asDouble(0);
+        return Double.isNaN(erro) ? 0 : erro;
+    }
+
+    // Versões do JMH anteriores à 1.36 prefixam as métricas de profiler com "·"
+    private static Double alocacao(JsonNode resultado) {
+        JsonNode secundarias = resultado.get("secondaryMetrics");
+        if (secundarias == null) {
+            return null;
+        }
+        Iterator<Map.Entry<String, JsonNode>> campos = secundarias.fields();
+        while (campos.hasNext()) {
+            Map.Entry<String, JsonNode> campo = campos.next();
+            if (campo.getKey().endsWith(ALOCACAO)) {
+                return campo.getValue().get("score").asDouble();
+            }
+        }
+        return null;
+    }
+
+    private static String formata(Double bytes) {
+        return bytes == null ? "-" : String.format("%.0f", bytes);
+    }
+}
@@ -0,0 +1,208 @@
+package com.tabajara.login.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tabajara.login.LoginApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compara vazão e latência de {@code /login} e {@code /profile} entre o modo
+ * padrão (pool de threads de plataforma do Tomcat) e o perfil {@code virtual}.
+ *
+ * Cada modo sobe a aplicação neste mesmo processo, sobre o perfil {@code test}
+ * (H2 em memória), e recebe carga em malha fechada de {@code concorrencia}
+ * clientes simultâneos. Cliente e servidor dividem a máquina, então os números
+ * servem para comparar os modos entre si, não como capacidade absoluta.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec@threads
+ * mvn -Pbenchmark test-compile exec:exec@threads -Dthreads.args="concorrencia=1000 duracao=30"
+ * </pre>
+ *
+ * Opções (chave=valor): {@code modos} (plataforma,virtual), {@code concorrencia}
+ * (400, acima das 200 threads padrão do Tomcat), {@code duracao} e
+ * {@code aquecimento} em segundos (20 e 5).
+ */
+public final class ComparacaoThreads {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private ComparacaoThreads() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            String[] par = arg.split("=", 2);
+            opcoes.put(par[0], par.length > 1 ? par[1] : "");
+        }
+        List<String> modos = Arrays.asList(opcoes.getOrDefault("modos", "plataforma,virtual").split(","));
+        int concorrencia = Integer.parseInt(opcoes.getOrDefault("concorrencia", "400"));
+        Duration duracao = Duration.ofSeconds(Long.parseLong(opcoes.getOrDefault("duracao", "20")));
+        Duration aquecimento = Duration.ofSeconds(Long.parseLong(opcoes.getOrDefault("aquecimento", "5")));
+
+        List<String> linhas = new ArrayList<>();
+        for (String modo : modos) {
+            try (ConfigurableApplicationContext contexto = inicia(modo)) {
+                int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+                Cliente cliente = new Cliente("http://localhost:" + porta + "/api/auth");
+                String token = cliente.prepara();
+
+                for (String cenario : List.of("login", "profile")) {
+                    HttpRequest requisicao = cenario.equals("login") ? cliente.login() : cliente.profile(token);
+                    cliente.carga(requisicao, concorrencia, aquecimento);
+                    Resultado resultado = cliente.carga(requisicao, concorrencia, duracao);
+                    linhas.add(String.format("%-10s %-8s %10.0f %9.2f %9.2f %9.2f %8d",
+                            modo, cenario, resultado.vazao(), resultado.percentil(0.50),
+                            resultado.percentil(0.99), resultado.percentil(0.999), resultado.erros()));
+                }
+            }
+        }
+
+        System.out.printf("%nconcorrência %d, %d s por cenário%n", concorrencia, duracao.toSeconds());
+        System.out.printf("%-10s %-8s %10s %9s %9s %9s %8s%n", "modo", "rota", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "erros");
+        linhas.forEach(System.out::println);
+    }
+
+    private static ConfigurableApplicationContext inicia(String modo) {
+        String[] perfis = switch (modo) {
+            case "plataforma" -> new String[]{"test"};
+            case "virtual" -> new String[]{"test", "virtual"};
+            default -> throw new IllegalArgumentException("Modo desconhecido: " + modo);
+        };
+        // Como argumentos de linha de comando, para prevalecer sobre o application.yaml
+        return new SpringApplicationBuilder(LoginApplication.class)
+                .profiles(perfis)
+                .run(
+                        "--server.port=0",
+                        // Banco novo a cada modo
+                        "--spring.datasource.url=jdbc:h2:mem:carga-" + modo
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.tabajara.login=WARN",
+                        "--logging.level.org.springframework.security=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--auth.throttle.enabled=false");
+    }
+
+    private record Resultado(long[] latenciasNs, long erros, Duration duracao) {
+
+        double vazao() {
+            return (latenciasNs.length + erros) / (duracao.toNanos() / 1e9);
+        }
+
+        double percentil(double p) {
+            if (latenciasNs.length == 0) {
+                return Double.NaN;
+            }
+            int indice = (int) Math.min(latenciasNs.length - 1, Math.ceil(p * latenciasNs.length) - 1);
+            return latenciasNs[Math.max(0, indice)] / 1e6;
+        }
+    }
+
+    private static final class Cliente {
+
+        private static final String USUARIO = "carga";
+        private static final String SENHA = "senha-carga-1";
+
+        private final String base;
+        private final HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Cliente(String base) {
+            this.base = base;
+        }
+
+        String prepara() throws Exception {
+            envia(HttpRequest.newBuilder(URI.create(base + "/register"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"username\":\"" + USUARIO + "\",\"email\":\"carga@tabajara.com\",\"password\":\"" + SENHA + "\"}"))
+                    .build(), 201);
+            JsonNode resposta = JSON.readTree(envia(login(), 200));
+            return resposta.get("token").asText();
+        }
+
+        HttpRequest login() {
+            return HttpRequest.newBuilder(URI.create(base + "/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"username\":\"" + USUARIO + "\",\"password\":\"" + SENHA + "\"}"))
+                    .build();
+        }
+
+        HttpRequest profile(String token) {
+            return HttpRequest.newBuilder(URI.create(base + "/profile"))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+        }
+
+        private String envia(HttpRequest requisicao, int statusEsperado) throws Exception {
+            HttpResponse<String> resposta = http.send(requisicao, HttpResponse.BodyHandlers.ofString());
+            if (resposta.statusCode() != statusEsperado) {
+                throw new IllegalStateException(requisicao.uri() + " respondeu " + resposta.statusCode() + ": " + resposta.body());
+            }
+            return resposta.body();
+        }
+
+        /**
+         * Malha fechada: cada cliente envia a próxima requisição assim que recebe a anterior.
+         */
+        Resultado carga(HttpRequest requisicao, int concorrencia, Duration duracao) throws InterruptedException {
+            long fim = System.nanoTime() + duracao.toNanos();
+            AtomicLong erros = new AtomicLong();
+            long[][] porCliente = new long[concorrencia][];
+            Thread[] clientes = new Thread[concorrencia];
+
+            for (int i = 0; i < concorrencia; i++) {
+                int indice = i;
+                clientes[i] = Thread.ofVirtual().start(() -> {
+                    long[] latencias = new long[1024];
+                    int n = 0;
+                    while (System.nanoTime() < fim) {
+                        long inicio = System.nanoTime();
+                        try {
+                            HttpResponse<Void> resposta = http.send(requisicao, HttpResponse.BodyHandlers.discarding());
+                            if (resposta.statusCode() != 200) {
+                                erros.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            erros.incrementAndGet();
+                            continue;
+                        }
+                        if (n == latencias.length) {
+                            latencias = Arrays.copyOf(latencias, n * 2);
+                        }
+                        latencias[n++] = System.nanoTime() - inicio;
+                    }
+                    porCliente[indice] = Arrays.copyOf(latencias, n);
+                });
+            }
+            for (Thread cliente : clientes) {
+                cliente.join();
+            }
+
+            long[] todas = Arrays.stream(porCliente).flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Resultado(todas, erros.get(), duracao);
+        }
+    }
+}
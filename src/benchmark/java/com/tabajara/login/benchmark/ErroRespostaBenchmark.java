@@ -0,0 +1,66 @@
+package com.tabajara.login.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tabajara.login.exception.ErroRespostaWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Corpo do 401 do {@code JwtAuthenticationEntryPoint}: o caminho antigo
+ * (HashMap e um ObjectMapper novo por resposta) contra o {@link ErroRespostaWriter}.
+ * Com {@code -prof gc}, compare também {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErroRespostaBenchmark {
+
+    private static final String MENSAGEM = "Full authentication is required to access this resource";
+    private static final String PATH = "/api/admin/usuarios";
+
+    private static final ErroRespostaWriter.Modelo NAO_AUTORIZADO =
+            ErroRespostaWriter.modelo(HttpStatus.UNAUTHORIZED, "Unauthorized");
+
+    @Benchmark
+    public byte[] objectMapperPorResposta() throws JsonProcessingException {
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", 401);
+        body.put("error", "Unauthorized");
+        body.put("message", MENSAGEM);
+        body.put("path", PATH);
+        body.put("timestamp", System.currentTimeMillis());
+        return new ObjectMapper().writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] erroRespostaWriter() {
+        return ErroRespostaWriter.corpo(NAO_AUTORIZADO)
+                .texto(ErroRespostaWriter.MESSAGE, MENSAGEM)
+                .texto(ErroRespostaWriter.PATH, PATH)
+                .timestampEpoch()
+                .bytes();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] erroRespostaWriterConcorrente() {
+        return erroRespostaWriter();
+    }
+}
@@ -0,0 +1,101 @@
+package com.tabajara.login.benchmark;
+
+import com.tabajara.login.security.JwtAuthenticationFilter;
+import com.tabajara.login.security.JwtTokenProvider;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por requisição do {@link JwtAuthenticationFilter}: leitura do header,
+ * cache de tokens verificados, lista de revogação, versão de segurança e
+ * montagem da autenticação. Sem banco: a versão do usuário já está em cache.
+ *
+ * {@code token=sem} mede o caminho de rotas públicas, sem header Authorization.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.args="FiltroJwt -prof gc"</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FiltroJwtBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Componentes {
+
+        FiltroMedido filtro;
+        String token;
+
+        @Setup
+        public void setup() {
+            JwtTokenProvider provider = Fixtures.tokenProvider(Fixtures.keyring("HS256"));
+            filtro = Fixtures.filtro(new FiltroMedido(), provider);
+            token = provider.generateToken(Fixtures.autenticacao());
+        }
+    }
+
+    // Requisição por thread: os mocks do Servlet não são thread-safe
+    @State(Scope.Thread)
+    public static class Requisicao {
+
+        @Param({"valido", "sem"})
+        public String token;
+
+        MockHttpServletRequest request;
+        MockHttpServletResponse response;
+        FilterChain chain;
+
+        @Setup
+        public void setup(Componentes componentes, Blackhole blackhole) {
+            request = new MockHttpServletRequest("GET", "/api/auth/profile");
+            if (token.equals("valido")) {
+                request.addHeader("Authorization", "Bearer " + componentes.token);
+            }
+            response = new MockHttpServletResponse();
+            chain = (req, resp) -> blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        }
+    }
+
+    @Benchmark
+    public void filtra(Componentes componentes, Requisicao requisicao) throws ServletException, IOException {
+        componentes.filtro.filtra(requisicao.request, requisicao.response, requisicao.chain);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void filtraConcorrente(Componentes componentes, Requisicao requisicao) throws ServletException, IOException {
+        componentes.filtro.filtra(requisicao.request, requisicao.response, requisicao.chain);
+        SecurityContextHolder.clearContext();
+    }
+
+    // doFilter pularia as chamadas seguintes na mesma requisição (atributo "já filtrado")
+    static final class FiltroMedido extends JwtAuthenticationFilter {
+        void filtra(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            doFilterInternal(request, response, chain);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.tabajara.login.benchmark;
+
+import com.tabajara.login.model.Role;
+import com.tabajara.login.model.Usuario;
+import com.tabajara.login.model.UsuarioSnapshot;
+import com.tabajara.login.repository.TokenRevogadoRepository;
+import com.tabajara.login.security.JwtAuthenticationFilter;
+import com.tabajara.login.security.JwtKeyring;
+import com.tabajara.login.security.JwtTokenCache;
+import com.tabajara.login.security.JwtTokenProvider;
+import com.tabajara.login.security.ListaRevogacao;
+import com.tabajara.login.service.VersaoSegurancaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.security.KeyPair;
+import java.util.List;
+
+/**
+ * Monta os componentes de segurança fora do contexto Spring, com a mesma
+ * configuração que a aplicação usaria.
+ */
+final class Fixtures {
+
+    static final String SEGREDO = "minha-chave-secreta-super-segura-deve-ter-pelo-menos-256-bits-para-funcionar-corretamente";
+
+    private Fixtures() {
+    }
+
+    /**
+     * @param algoritmo HS256, ES256 ou RS256: algoritmo da chave ativa
+     */
+    static JwtKeyring keyring(String algoritmo) {
+        JwtKeyring keyring = new JwtKeyring(evento -> { }, new StandardEnvironment());
+        ReflectionTestUtils.setField(keyring, "jwtSecret", SEGREDO);
+        ReflectionTestUtils.setField(keyring, "kidAtivoConfigurado", JwtKeyring.KID_PADRAO);
+        ReflectionTestUtils.invokeMethod(keyring, "inicializa");
+
+        switch (algoritmo) {
+            case "HS256" -> { }
+            case "ES256" -> keyring.adicionaEs256("es", true);
+            case "RS256" -> {
+                KeyPair par = Keys.keyPairFor(SignatureAlgorithm.RS256);
+                keyring.adiciona(new JwtKeyring.ChaveJwt("rs", SignatureAlgorithm.RS256,
+                        par.getPrivate(), par.getPublic()), true);
+            }
+            default -> throw new IllegalArgumentException("Algoritmo não suportado: " + algoritmo);
+        }
+        return keyring;
+    }
+
+    static JwtTokenProvider tokenProvider(JwtKeyring keyring) {
+        JwtTokenProvider provider = new JwtTokenProvider(keyring, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(provider, "jwtExpiracaoMs", 3_600_000L);
+        return provider;
+    }
+
+    static Usuario usuario() {
+        Usuario usuario = new Usuario("fabricio", "fabricio@tabajara.com",
+                "$2a$10$b.3l7/3ZvJ7U7XKxOQE2YuE6aTa3L1zB5s3F1J5u4M8xF2aD1bF3G", Role.USUARIO);
+        usuario.setId(42L);
+        return usuario;
+    }
+
+    static Authentication autenticacao() {
+        UsuarioSnapshot snapshot = new UsuarioSnapshot(usuario());
+        return new UsernamePasswordAuthenticationToken(snapshot, null, snapshot.getAuthorities());
+    }
+
+    /**
+     * Filtro com as dependências reais em memória: cache de tokens, versão de
+     * segurança já conhecida (sem banco) e lista de revogação vazia.
+     */
+    static <F extends JwtAuthenticationFilter> F filtro(F filtro, JwtTokenProvider provider) {
+        MeterRegistry registry = new SimpleMeterRegistry();
+
+        VersaoSegurancaService versoes = new VersaoSegurancaService(null, registry, 10_000, Long.MAX_VALUE / 2);
+        versoes.atualiza(usuario().getId(), usuario().getVersaoSeguranca());
+
+        TokenRevogadoRepository semRevogacoes = (TokenRevogadoRepository) Proxy.newProxyInstance(
+                TokenRevogadoRepository.class.getClassLoader(), new Class<?>[]{TokenRevogadoRepository.class},
+                (proxy, metodo, args) -> metodo.getReturnType() == List.class ? List.of() : null);
+        ListaRevogacao listaRevogacao = new ListaRevogacao(semRevogacoes, registry);
+        ReflectionTestUtils.setField(listaRevogacao, "capacidadeMinima", 100_000L);
+        ReflectionTestUtils.setField(listaRevogacao, "taxaFalsoPositivo", 0.001);
+        ReflectionTestUtils.invokeMethod(listaRevogacao, "carrega");
+
+        ReflectionTestUtils.setField(filtro, "tokenCache", new JwtTokenCache(provider, registry, 10_000));
+        ReflectionTestUtils.setField(filtro, "versaoSegurancaService", versoes);
+        ReflectionTestUtils.setField(filtro, "listaRevogacao", listaRevogacao);
+        ReflectionTestUtils.invokeMethod(filtro, "registraMetricas", registry);
+        return filtro;
+    }
+}
@@ -0,0 +1,57 @@
+package com.tabajara.login.benchmark;
+
+import com.tabajara.login.security.JwtTokenProvider;
+import com.tabajara.login.security.TokenVerificado;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a vazão de assinatura e verificação entre HS256 e as opções
+ * assimétricas suportadas pelo {@link JwtTokenProvider}.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.args="JwtAssinatura -rf json -rff target/jwt-assinatura.json"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAssinaturaBenchmark {
+
+    @Param({"HS256", "ES256", "RS256"})
+    public String algoritmo;
+
+    private JwtTokenProvider provider;
+    private Authentication autenticacao;
+    private String token;
+
+    @Setup
+    public void setup() {
+        provider = Fixtures.tokenProvider(Fixtures.keyring(algoritmo));
+        autenticacao = Fixtures.autenticacao();
+        token = provider.generateToken(autenticacao);
+    }
+
+    @Benchmark
+    public String assina() {
+        return provider.generateToken(autenticacao);
+    }
+
+    @Benchmark
+    public TokenVerificado verifica() {
+        return provider.verificaToken(token);
+    }
+}
@@ -0,0 +1,77 @@
+package com.tabajara.login.benchmark;
+
+import com.tabajara.login.security.JwtTokenProvider;
+import com.tabajara.login.security.TokenVerificado;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operações públicas do {@link JwtTokenProvider} com a chave HS256 padrão.
+ * As variantes {@code Concorrente} usam uma thread por núcleo sobre o mesmo
+ * provider, como as threads do Tomcat fazem.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.args="JwtTokenBenchmark -prof gc -rf json -rff target/jwt-token.json"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenBenchmark {
+
+    private JwtTokenProvider provider;
+    private Authentication autenticacao;
+    private String token;
+
+    @Setup
+    public void setup() {
+        provider = Fixtures.tokenProvider(Fixtures.keyring("HS256"));
+        autenticacao = Fixtures.autenticacao();
+        token = provider.generateToken(autenticacao);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return provider.generateToken(autenticacao);
+    }
+
+    @Benchmark
+    public boolean validaToken() {
+        return provider.validaToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameToken() {
+        return provider.getUsernameToken(token);
+    }
+
+    @Benchmark
+    public TokenVerificado verificaToken() {
+        return provider.verificaToken(token);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String generateTokenConcorrente() {
+        return provider.generateToken(autenticacao);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean validaTokenConcorrente() {
+        return provider.validaToken(token);
+    }
+}
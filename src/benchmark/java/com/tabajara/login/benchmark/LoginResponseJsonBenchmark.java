@@ -0,0 +1,67 @@
+package com.tabajara.login.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.tabajara.login.dto.LoginResponse;
+import com.tabajara.login.model.Role;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização da resposta de login com o ObjectMapper configurado como o
+ * do Spring Boot ({@code SNAKE_CASE}), pelo caminho genérico e por um
+ * {@link ObjectWriter} já resolvido para o tipo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoginResponseJsonBenchmark {
+
+    private ObjectMapper mapper;
+    private ObjectWriter writer;
+    private LoginResponse resposta;
+
+    @Setup
+    public void setup() {
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .build();
+        writer = mapper.writerFor(LoginResponse.class);
+        String token = Fixtures.tokenProvider(Fixtures.keyring("HS256")).generateToken(Fixtures.autenticacao());
+        resposta = new LoginResponse(token, "fabricio", "fabricio@tabajara.com", Role.USUARIO, 900_000L,
+                "Jq1n0m2Yp7cXwZrVb3KdTf8sLhG4aE6uQ9iR5oPzNyM", 604_800_000L);
+    }
+
+    @Benchmark
+    public byte[] objectMapper() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(resposta);
+    }
+
+    @Benchmark
+    public byte[] objectWriter() throws JsonProcessingException {
+        return writer.writeValueAsBytes(resposta);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] objectWriterConcorrente() throws JsonProcessingException {
+        return writer.writeValueAsBytes(resposta);
+    }
+}
@@ -0,0 +1,61 @@
+package com.tabajara.login.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt nos custos mais prováveis depois da calibração. A variante
+ * {@code Concorrente} mostra quanto a vazão cresce com os núcleos, que é o
+ * que dimensiona {@code password.hashing.threads}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SenhaBenchmark {
+
+    private static final String SENHA = "Senha-de-Teste-123";
+
+    @Param({"10", "12"})
+    public int custo;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setup() {
+        encoder = new BCryptPasswordEncoder(custo);
+        hash = encoder.encode(SENHA);
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(SENHA);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(SENHA, hash);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean matchesConcorrente() {
+        return encoder.matches(SENHA, hash);
+    }
+}
@@ -0,0 +1,425 @@
+package com.tabajara.login.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tabajara.login.LoginApplication;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Teste de carga ponta a ponta: sobe a aplicação neste processo e aplica uma
+ * mistura de registro, login, {@code /profile} e tokens inválidos, em malha
+ * fechada, por {@code concorrencia} clientes simultâneos.
+ *
+ * O relatório traz vazão e latência (HdrHistogram, p50/p99/p99.9/máx) por
+ * operação e a espera por conexão do Hikari ({@code hikaricp.connections.acquire})
+ * no mesmo intervalo. Serve para dimensionar instâncias antes de cada release;
+ * cliente e servidor dividem a máquina, então compare execuções na mesma máquina.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec@carga
+ * mvn -Pbenchmark test-compile exec:exec@carga -Dcarga.args="banco=postgres concorrencia=400 duracao=120"
+ * </pre>
+ *
+ * Opções (chave=valor):
+ * <ul>
+ *   <li>{@code banco}: {@code h2} (perfil {@code test}) ou {@code postgres} (configuração
+ *   padrão, banco local do {@code application.yaml}). O perfil {@code test} usa BCrypt com
+ *   custo mínimo; para números de login e registro próximos de produção, use {@code postgres}.</li>
+ *   <li>{@code perfis}: perfis adicionais, por exemplo {@code virtual}.</li>
+ *   <li>{@code concorrencia} (200), {@code duracao} e {@code aquecimento} em segundos (60 e 10).</li>
+ *   <li>{@code usuarios}: contas criadas antes da carga para login e {@code /profile} (100).</li>
+ *   <li>{@code mix}: pesos das operações (register:2,login:10,profile:80,invalido:8).</li>
+ *   <li>{@code hgrm}: diretório onde gravar a distribuição completa de cada operação
+ *   ({@code .hgrm}, em ms), para plotar ou comparar entre releases.</li>
+ * </ul>
+ */
+public final class TesteCarga {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    // Latências em microssegundos, até 60 s, com 3 dígitos significativos
+    private static final long LATENCIA_MAXIMA_US = TimeUnit.SECONDS.toMicros(60);
+
+    private static final String ACQUIRE = "hikaricp.connections.acquire";
+
+    private TesteCarga() {
+    }
+
+    enum Operacao {
+        REGISTER, LOGIN, PROFILE, INVALIDO
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            String[] par = arg.split("=", 2);
+            opcoes.put(par[0], par.length > 1 ? par[1] : "");
+        }
+        String banco = opcoes.getOrDefault("banco", "h2");
+        int concorrencia = Integer.parseInt(opcoes.getOrDefault("concorrencia", "200"));
+        Duration duracao = Duration.ofSeconds(Long.parseLong(opcoes.getOrDefault("duracao", "60")));
+        Duration aquecimento = Duration.ofSeconds(Long.parseLong(opcoes.getOrDefault("aquecimento", "10")));
+        int usuarios = Integer.parseInt(opcoes.getOrDefault("usuarios", "100"));
+        Mix mix = Mix.de(opcoes.getOrDefault("mix", "register:2,login:10,profile:80,invalido:8"));
+
+        try (ConfigurableApplicationContext contexto = inicia(banco, opcoes.getOrDefault("perfis", ""))) {
+            int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            MeterRegistry registry = contexto.getBean(MeterRegistry.class);
+            Cliente cliente = new Cliente("http://localhost:" + porta + "/api/auth", usuarios);
+
+            cliente.prepara();
+            cliente.carga(mix, concorrencia, aquecimento);
+
+            EsperaConexao espera = EsperaConexao.inicio(registry);
+            Thread amostrador = Thread.ofVirtual().start(espera::amostraPendentes);
+            Map<Operacao, Medicao> medicoes = cliente.carga(mix, concorrencia, duracao);
+            amostrador.interrupt();
+            amostrador.join();
+
+            imprime(banco, concorrencia, duracao, medicoes, espera.fim(registry));
+            if (opcoes.containsKey("hgrm")) {
+                gravaDistribuicoes(new File(opcoes.get("hgrm")), medicoes);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext inicia(String banco, String perfisAdicionais) {
+        List<String> perfis = new ArrayList<>();
+        List<String> argumentos = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.tabajara.login=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--auth.throttle.enabled=false",
+                "--management.metrics.distribution.percentiles." + ACQUIRE + "=0.5,0.99,0.999"));
+        switch (banco) {
+            case "h2" -> {
+                perfis.add("test");
+                argumentos.add("--spring.datasource.url=jdbc:h2:mem:carga"
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+            }
+            case "postgres" -> perfis.add("dev");
+            default -> throw new IllegalArgumentException("Banco desconhecido: " + banco);
+        }
+        for (String perfil : perfisAdicionais.split(",")) {
+            if (!perfil.isBlank()) {
+                perfis.add(perfil.trim());
+            }
+        }
+        // Como argumentos de linha de comando, para prevalecer sobre o application.yaml
+        return new SpringApplicationBuilder(LoginApplication.class)
+                .profiles(perfis.toArray(String[]::new))
+                .run(argumentos.toArray(String[]::new));
+    }
+
+    private static void imprime(String banco, int concorrencia, Duration duracao,
+                                Map<Operacao, Medicao> medicoes, EsperaConexao.Resultado espera) {
+        double segundos = duracao.toNanos() / 1e9;
+        long total = 0;
+        System.out.printf("%nbanco %s, concorrência %d, %d s%n", banco, concorrencia, duracao.toSeconds());
+        System.out.printf("%-10s %9s %9s %9s %9s %9s %9s %8s%n",
+                "operação", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "máx ms", "n", "erros");
+        for (Map.Entry<Operacao, Medicao> entrada : medicoes.entrySet()) {
+            Histogram histograma = entrada.getValue().latencias();
+            long n = histograma.getTotalCount();
+            long erros = entrada.getValue().erros().get();
+            total += n + erros;
+            System.out.printf("%-10s %9.0f %9.2f %9.2f %9.2f %9.2f %9d %8d%n",
+                    entrada.getKey().name().toLowerCase(), (n + erros) / segundos,
+                    ms(histograma.getValueAtPercentile(50)), ms(histograma.getValueAtPercentile(99)),
+                    ms(histograma.getValueAtPercentile(99.9)), ms(histograma.getMaxValue()), n, erros);
+        }
+        System.out.printf("%-10s %9.0f%n", "total", total / segundos);
+
+        System.out.printf("%nHikari (%s)%n", ACQUIRE);
+        if (espera == null) {
+            System.out.println("  métricas do pool indisponíveis");
+            return;
+        }
+        System.out.printf("  aquisições %d, média %.3f ms, máx %.3f ms, timeouts %d, pendentes (máx) %d%n",
+                espera.aquisicoes(), espera.mediaMs(), espera.maximoMs(), espera.timeouts(), espera.pendentesMaximo());
+        for (ValueAtPercentile percentil : espera.percentis()) {
+            System.out.printf("  p%s %.3f ms%n", percentil.percentile() * 100, percentil.value(TimeUnit.MILLISECONDS));
+        }
+        System.out.println("  (média e timeouts cobrem só a medição; máx e percentis, a janela do Micrometer)");
+    }
+
+    private static double ms(long microssegundos) {
+        return microssegundos / 1000.0;
+    }
+
+    private static void gravaDistribuicoes(File diretorio, Map<Operacao, Medicao> medicoes) throws Exception {
+        if (!diretorio.isDirectory() && !diretorio.mkdirs()) {
+            throw new IllegalStateException("Não foi possível criar " + diretorio);
+        }
+        for (Map.Entry<Operacao, Medicao> entrada : medicoes.entrySet()) {
+            File arquivo = new File(diretorio, entrada.getKey().name().toLowerCase() + ".hgrm");
+            try (PrintStream saida = new PrintStream(arquivo)) {
+                entrada.getValue().latencias().outputPercentileDistribution(saida, 1000.0);
+            }
+        }
+        System.out.printf("%nDistribuições gravadas em %s%n", diretorio.getAbsolutePath());
+    }
+
+    private record Medicao(Histogram latencias, AtomicLong erros) {
+
+        static Medicao nova() {
+            return new Medicao(new ConcurrentHistogram(1, LATENCIA_MAXIMA_US, 3), new AtomicLong());
+        }
+
+        void registra(long nanos) {
+            latencias.recordValue(Math.min(LATENCIA_MAXIMA_US, Math.max(1, nanos / 1000)));
+        }
+    }
+
+    /**
+     * Pesos das operações, sorteadas a cada requisição.
+     */
+    private record Mix(Operacao[] operacoes, int[] acumulado) {
+
+        static Mix de(String especificacao) {
+            Map<Operacao, Integer> pesos = new EnumMap<>(Operacao.class);
+            for (String item : especificacao.split(",")) {
+                String[] par = item.split(":", 2);
+                pesos.put(Operacao.valueOf(par[0].trim().toUpperCase()), Integer.parseInt(par[1].trim()));
+            }
+            Operacao[] operacoes = pesos.keySet().toArray(Operacao[]::new);
+            int[] acumulado = new int[operacoes.length];
+            int soma = 0;
+            for (int i = 0; i < operacoes.length; i++) {
+                soma += pesos.get(operacoes[i]);
+                acumulado[i] = soma;
+            }
+            if (soma <= 0) {
+                throw new IllegalArgumentException("Mix sem operações: " + especificacao);
+            }
+            return new Mix(operacoes, acumulado);
+        }
+
+        Operacao sorteia(ThreadLocalRandom random) {
+            int valor = random.nextInt(acumulado[acumulado.length - 1]);
+            for (int i = 0; i < acumulado.length; i++) {
+                if (valor < acumulado[i]) {
+                    return operacoes[i];
+                }
+            }
+            return operacoes[operacoes.length - 1];
+        }
+    }
+
+    /**
+     * Leituras do timer de aquisição do Hikari no início e no fim da medição.
+     */
+    private static final class EsperaConexao {
+
+        private final long aquisicoesInicio;
+        private final double totalInicioMs;
+        private final double timeoutsInicio;
+        private final Gauge pendentes;
+        private volatile long pendentesMaximo;
+
+        private EsperaConexao(Timer acquire, Counter timeouts, Gauge pendentes) {
+            this.aquisicoesInicio = acquire == null ? 0 : acquire.count();
+            this.totalInicioMs = acquire == null ? 0 : acquire.totalTime(TimeUnit.MILLISECONDS);
+            this.timeoutsInicio = timeouts == null ? 0 : timeouts.count();
+            this.pendentes = pendentes;
+        }
+
+        static EsperaConexao inicio(MeterRegistry registry) {
+            return new EsperaConexao(
+                    registry.find(ACQUIRE).timer(),
+                    registry.find("hikaricp.connections.timeout").counter(),
+                    registry.find("hikaricp.connections.pending").gauge());
+        }
+
+        void amostraPendentes() {
+            if (pendentes == null) {
+                return;
+            }
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    pendentesMaximo = Math.max(pendentesMaximo, (long) pendentes.value());
+                    Thread.sleep(50);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Resultado fim(MeterRegistry registry) {
+            Timer acquire = registry.find(ACQUIRE).timer();
+            if (acquire == null) {
+                return null;
+            }
+            Counter timeouts = registry.find("hikaricp.connections.timeout").counter();
+            long aquisicoes = acquire.count() - aquisicoesInicio;
+            double totalMs = acquire.totalTime(TimeUnit.MILLISECONDS) - totalInicioMs;
+            return new Resultado(
+                    aquisicoes,
+                    aquisicoes == 0 ? 0 : totalMs / aquisicoes,
+                    acquire.max(TimeUnit.MILLISECONDS),
+                    timeouts == null ? 0 : (long) (timeouts.count() - timeoutsInicio),
+                    pendentesMaximo,
+                    acquire.takeSnapshot().percentileValues());
+        }
+
+        record Resultado(long aquisicoes, double mediaMs, double maximoMs, long timeouts,
+                         long pendentesMaximo, ValueAtPercentile[] percentis) {
+        }
+    }
+
+    private static final class Cliente {
+
+        private static final String SENHA = "senha-carga-1";
+
+        private final String base;
+        // Prefixo por execução, para rodar de novo sobre o mesmo Postgres
+        private final String prefixo = "c" + Long.toString(System.currentTimeMillis() % 1_000_000_000L, 36);
+        private final AtomicLong registrados = new AtomicLong();
+        private final AtomicReferenceArray<String> tokens;
+        private final HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Cliente(String base, int usuarios) {
+            this.base = base;
+            this.tokens = new AtomicReferenceArray<>(usuarios);
+        }
+
+        private String usuario(int indice) {
+            return prefixo + "-u" + indice;
+        }
+
+        void prepara() throws Exception {
+            for (int i = 0; i < tokens.length(); i++) {
+                envia(register(usuario(i)), 201);
+                tokens.set(i, JSON.readTree(envia(login(usuario(i)), 200)).get("token").asText());
+            }
+        }
+
+        HttpRequest register(String username) {
+            return HttpRequest.newBuilder(URI.create(base + "/register"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + username + "\",\"email\":\""
+                            + username + "@carga.tabajara.com\",\"password\":\"" + SENHA + "\"}"))
+                    .build();
+        }
+
+        HttpRequest login(String username) {
+            return HttpRequest.newBuilder(URI.create(base + "/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"username\":\"" + username + "\",\"password\":\"" + SENHA + "\"}"))
+                    .build();
+        }
+
+        HttpRequest profile(String token) {
+            return HttpRequest.newBuilder(URI.create(base + "/profile"))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+        }
+
+        private String envia(HttpRequest requisicao, int statusEsperado) throws Exception {
+            HttpResponse<String> resposta = http.send(requisicao, HttpResponse.BodyHandlers.ofString());
+            if (resposta.statusCode() != statusEsperado) {
+                throw new IllegalStateException(requisicao.uri() + " respondeu " + resposta.statusCode() + ": " + resposta.body());
+            }
+            return resposta.body();
+        }
+
+        /**
+         * Malha fechada: cada cliente envia a próxima requisição assim que recebe a anterior.
+         */
+        Map<Operacao, Medicao> carga(Mix mix, int concorrencia, Duration duracao) throws InterruptedException {
+            Map<Operacao, Medicao> medicoes = new EnumMap<>(Operacao.class);
+            for (Operacao operacao : mix.operacoes()) {
+                medicoes.put(operacao, Medicao.nova());
+            }
+            long fim = System.nanoTime() + duracao.toNanos();
+            Thread[] clientes = new Thread[concorrencia];
+            for (int i = 0; i < concorrencia; i++) {
+                clientes[i] = Thread.ofVirtual().start(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < fim) {
+                        Operacao operacao = mix.sorteia(random);
+                        Medicao medicao = medicoes.get(operacao);
+                        long inicio = System.nanoTime();
+                        try {
+                            if (executa(operacao, random)) {
+                                medicao.registra(System.nanoTime() - inicio);
+                            } else {
+                                medicao.erros().incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            medicao.erros().incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (Thread cliente : clientes) {
+                cliente.join();
+            }
+            return medicoes;
+        }
+
+        private boolean executa(Operacao operacao, ThreadLocalRandom random) throws Exception {
+            int indice = random.nextInt(tokens.length());
+            switch (operacao) {
+                case REGISTER -> {
+                    String username = prefixo + "-r" + registrados.incrementAndGet();
+                    return http.send(register(username), HttpResponse.BodyHandlers.discarding()).statusCode() == 201;
+                }
+                case LOGIN -> {
+                    HttpResponse<String> resposta = http.send(login(usuario(indice)), HttpResponse.BodyHandlers.ofString());
+                    if (resposta.statusCode() != 200) {
+                        return false;
+                    }
+                    // Mantém os tokens do /profile válidos em execuções mais longas que a expiração
+                    tokens.set(indice, JSON.readTree(resposta.body()).get("token").asText());
+                    return true;
+                }
+                case PROFILE -> {
+                    return http.send(profile(tokens.get(indice)), HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                }
+                default -> {
+                    // Assinatura adulterada: passa pelo parse e falha na verificação, o caso mais caro de rejeitar
+                    String token = tokens.get(indice);
+                    String adulterado = token.substring(0, token.length() - 2)
+                            + (token.charAt(token.length() - 2) == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+                    // Sem autenticação o /profile responde 403 pelo GlobalExceptionHandler, não 401 do entry point
+                    int status = http.send(profile(adulterado), HttpResponse.BodyHandlers.discarding()).statusCode();
+                    return status == 401 || status == 403;
+                }
+            }
+        }
+    }
+}
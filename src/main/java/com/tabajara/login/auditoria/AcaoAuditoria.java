@@ -0,0 +1,10 @@
+package com.tabajara.login.auditoria;
+
+/**
+ * Valores gravados em {@code audit_logs.action}.
+ */
+public enum AcaoAuditoria {
+
+    LOGIN_SUCESSO, LOGIN_FALHA, REGISTRO, LOGOUT, NAO_AUTORIZADO, ACESSO_NEGADO, CONTA_BLOQUEADA, CONTA_DESBLOQUEADA,
+    REFRESH_REUTILIZADO
+}
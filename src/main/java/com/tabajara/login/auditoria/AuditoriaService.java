@@ -0,0 +1,216 @@
+package com.tabajara.login.auditoria;
+
+import com.tabajara.login.security.ClienteIpResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Registra eventos em {@code audit_logs} sem custo de banco na requisição.
+ *
+ * A thread da requisição só monta o {@link EventoAuditoria} e o publica no
+ * {@link RingBufferAuditoria}. Uma thread dedicada drena o buffer e grava em
+ * INSERTs JDBC em lote. Com o buffer cheio, vale {@code auditoria.overflow-policy}:
+ * DROP descarta e contabiliza, BLOCK espera espaço por até
+ * {@code auditoria.block-max-wait-ms} e então descarta.
+ *
+ * Cada lote é gravado numa transação. Se falhar, nada fica gravado e os
+ * eventos são regravados um a um, para que uma linha inválida não leve as
+ * demais junto; só as que falharem de novo contam em {@code audit.events.failed}.
+ */
+@Service
+public class AuditoriaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditoriaService.class);
+
+    private static final String SQL = "INSERT INTO audit_logs (user_id, action, details, ip_address, user_agent, timestamp) "
+            + "VALUES (?, ?, ?, CAST(? AS inet), ?, ?)";
+
+    private static final int TAMANHO_MAXIMO_USER_AGENT = 512;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ClienteIpResolver clienteIpResolver;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auditoria.enabled:true}")
+    private boolean habilitada;
+
+    @Value("${auditoria.capacity:8192}")
+    private int capacidade;
+
+    @Value("${auditoria.overflow-policy:DROP}")
+    private RingBufferAuditoria.PoliticaOverflow politica;
+
+    @Value("${auditoria.block-max-wait-ms:1000}")
+    private long esperaMaximaMs;
+
+    @Value("${auditoria.batch-size:500}")
+    private int tamanhoLote;
+
+    @Value("${auditoria.flush-interval-ms:200}")
+    private long intervaloMs;
+
+    private RingBufferAuditoria buffer;
+    private Thread escritor;
+    private volatile boolean ativo;
+    private Counter gravados;
+    private Counter falhas;
+
+    @Autowired
+    public AuditoriaService(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ClienteIpResolver clienteIpResolver,
+                            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clienteIpResolver = clienteIpResolver;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void inicia() {
+        if (!habilitada) {
+            logger.info("Auditoria desabilitada");
+            return;
+        }
+        buffer = new RingBufferAuditoria(capacidade, politica, TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs));
+        gravados = Counter.builder("audit.events.written").register(meterRegistry);
+        falhas = Counter.builder("audit.events.failed")
+                .description("Eventos perdidos por erro ao gravar no banco")
+                .register(meterRegistry);
+        FunctionCounter.builder("audit.events.dropped", buffer, RingBufferAuditoria::descartados)
+                .description("Eventos descartados com o buffer cheio ou já encerrado")
+                .register(meterRegistry);
+        Gauge.builder("audit.buffer.size", buffer, RingBufferAuditoria::tamanho).register(meterRegistry);
+
+        ativo = true;
+        escritor = new Thread(this::loopEscrita, "audit-writer");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Registra um evento com IP e user agent da requisição corrente, se houver.
+     */
+    public void registra(AcaoAuditoria acao, Long userId, String detalhes) {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        HttpServletRequest request = atributos instanceof ServletRequestAttributes servlet ? servlet.getRequest() : null;
+        registra(acao, userId, detalhes, request);
+    }
+
+    public void registra(AcaoAuditoria acao, Long userId, String detalhes, HttpServletRequest request) {
+        if (buffer == null) {
+            return;
+        }
+        String ip = null;
+        String userAgent = null;
+        if (request != null) {
+            ip = clienteIpResolver.resolve(request);
+            userAgent = request.getHeader("User-Agent");
+            if (userAgent != null && userAgent.length() > TAMANHO_MAXIMO_USER_AGENT) {
+                userAgent = userAgent.substring(0, TAMANHO_MAXIMO_USER_AGENT);
+            }
+        }
+        buffer.publica(new EventoAuditoria(userId, acao, detalhes, ip, userAgent, System.currentTimeMillis()));
+    }
+
+    private void loopEscrita() {
+        List<EventoAuditoria> lote = new ArrayList<>(tamanhoLote);
+        long intervaloNs = TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+        while (ativo) {
+            if (buffer.drena(lote, tamanhoLote) == 0) {
+                LockSupport.parkNanos(intervaloNs);
+                continue;
+            }
+            grava(lote);
+            lote.clear();
+        }
+        // Encerramento: grava o que restou
+        while (buffer.drena(lote, tamanhoLote) > 0) {
+            grava(lote);
+            lote.clear();
+        }
+    }
+
+    private void grava(List<EventoAuditoria> lote) {
+        try {
+            // Na transação, uma falha desfaz o lote inteiro e a regravação não duplica linhas
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(SQL, lote, lote.size(), (ps, evento) -> parametros(ps, evento)));
+            gravados.increment(lote.size());
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao gravar lote de {} evento(s) de auditoria; regravando um a um", lote.size(), e);
+            gravaUmAUm(lote);
+        }
+    }
+
+    private void gravaUmAUm(List<EventoAuditoria> lote) {
+        int perdidos = 0;
+        RuntimeException primeira = null;
+        for (EventoAuditoria evento : lote) {
+            try {
+                jdbcTemplate.update(SQL, ps -> parametros(ps, evento));
+                gravados.increment();
+            } catch (RuntimeException e) {
+                perdidos++;
+                if (primeira == null) {
+                    primeira = e;
+                }
+            }
+        }
+        if (perdidos > 0) {
+            falhas.increment(perdidos);
+            logger.warn("{} de {} evento(s) de auditoria não puderam ser gravados", perdidos, lote.size(), primeira);
+        }
+    }
+
+    private static void parametros(PreparedStatement ps, EventoAuditoria evento) throws SQLException {
+        if (evento.userId() != null) {
+            ps.setLong(1, evento.userId());
+        } else {
+            ps.setNull(1, Types.BIGINT);
+        }
+        ps.setString(2, evento.acao().name());
+        ps.setString(3, evento.detalhes());
+        ps.setString(4, evento.ip());
+        ps.setString(5, evento.userAgent());
+        ps.setTimestamp(6, new Timestamp(evento.instanteMs()));
+    }
+
+    @PreDestroy
+    public void encerra() throws InterruptedException {
+        if (escritor == null) {
+            return;
+        }
+        // Produtores em BLOCK não podem esperar por um consumidor que está parando
+        buffer.fecha();
+        ativo = false;
+        LockSupport.unpark(escritor);
+        escritor.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
@@ -0,0 +1,12 @@
+package com.tabajara.login.auditoria;
+
+/**
+ * Uma linha de {@code audit_logs}, capturada na thread da requisição.
+ */
+public record EventoAuditoria(Long userId,
+                              AcaoAuditoria acao,
+                              String detalhes,
+                              String ip,
+                              String userAgent,
+                              long instanteMs) {
+}
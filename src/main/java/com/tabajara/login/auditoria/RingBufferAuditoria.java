@@ -0,0 +1,118 @@
+package com.tabajara.login.auditoria;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Buffer circular limitado, sem locks, com vários produtores e um único consumidor.
+ *
+ * Cada produtor reserva uma posição com um CAS em {@code cauda} e publica o
+ * evento no slot. O consumidor avança {@code cabeca} slot a slot, parando no
+ * primeiro que ainda não foi publicado. Quando o buffer está cheio, a
+ * {@link PoliticaOverflow} decide entre descartar o evento ou esperar espaço.
+ *
+ * A espera do BLOCK é limitada a {@code esperaMaximaNs} e termina assim que o
+ * buffer é {@linkplain #fecha() fechado}: sem consumidor, ninguém abriria
+ * espaço e a thread do produtor ficaria presa. Nos dois casos o evento é
+ * descartado e contabilizado como na política DROP.
+ */
+public class RingBufferAuditoria {
+
+    public enum PoliticaOverflow { DROP, BLOCK }
+
+    private final AtomicReferenceArray<EventoAuditoria> slots;
+    private final int mascara;
+    private final PoliticaOverflow politica;
+    private final long esperaMaximaNs;
+
+    private final AtomicLong cauda = new AtomicLong();
+    private volatile long cabeca;
+    private volatile boolean fechado;
+
+    private final LongAdder descartados = new LongAdder();
+
+    public RingBufferAuditoria(int capacidadeMinima, PoliticaOverflow politica, long esperaMaximaNs) {
+        int capacidade = Integer.highestOneBit(Math.max(1, capacidadeMinima - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacidade);
+        this.mascara = capacidade - 1;
+        this.politica = politica;
+        this.esperaMaximaNs = esperaMaximaNs;
+    }
+
+    /**
+     * @return {@code false} se o evento foi descartado por falta de espaço
+     */
+    public boolean publica(EventoAuditoria evento) {
+        long limite = 0;
+        while (true) {
+            if (fechado) {
+                descartados.increment();
+                return false;
+            }
+            long posicao = cauda.get();
+            if (posicao - cabeca >= slots.length()) {
+                if (politica == PoliticaOverflow.DROP) {
+                    descartados.increment();
+                    return false;
+                }
+                long agora = System.nanoTime();
+                if (limite == 0) {
+                    limite = agora + esperaMaximaNs;
+                } else if (agora - limite >= 0) {
+                    descartados.increment();
+                    return false;
+                }
+                LockSupport.parkNanos(50_000);
+                continue;
+            }
+            if (cauda.compareAndSet(posicao, posicao + 1)) {
+                slots.set((int) posicao & mascara, evento);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Recusa novas publicações e libera produtores esperando espaço. Chamado
+     * quando o consumidor para; eventos já publicados continuam drenáveis.
+     */
+    public void fecha() {
+        fechado = true;
+    }
+
+    /**
+     * Move até {@code maximo} eventos para {@code destino}. Deve ser chamado
+     * sempre pela mesma thread.
+     *
+     * @return quantidade de eventos movidos
+     */
+    public int drena(List<EventoAuditoria> destino, int maximo) {
+        long posicao = cabeca;
+        int movidos = 0;
+        while (movidos < maximo) {
+            int indice = (int) posicao & mascara;
+            EventoAuditoria evento = slots.get(indice);
+            if (evento == null) {
+                // Vazio, ou reservado por um produtor que ainda não publicou
+                break;
+            }
+            slots.set(indice, null);
+            destino.add(evento);
+            posicao++;
+            movidos++;
+        }
+        cabeca = posicao;
+        return movidos;
+    }
+
+    public long tamanho() {
+        return Math.max(0, cauda.get() - cabeca);
+    }
+
+    public long descartados() {
+        return descartados.sum();
+    }
+}
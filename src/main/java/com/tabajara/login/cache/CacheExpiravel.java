@@ -0,0 +1,227 @@
+package com.tabajara.login.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache em memória limitado por tamanho, em que cada entrada expira no instante
+ * informado no momento da inserção.
+ *
+ * Entradas expiradas nunca são devolvidas: são removidas na leitura e também
+ * por {@link #limpaExpirados()}, que deve ser chamado periodicamente pelo dono
+ * do cache. Ao atingir o tamanho máximo, as expiradas são descartadas primeiro
+ * e, se ainda não houver espaço, um lote de entradas arbitrárias é removido.
+ *
+ * {@link #getOuCarrega} garante que leituras concorrentes da mesma chave
+ * ausente disparem um único carregamento.
+ *
+ * Um valor lido da origem antes de uma invalidação nunca fica no cache depois
+ * dela: {@code getOuCarrega} e {@link #putSeGeracao} descartam o que foi
+ * carregado numa {@link #geracao()} anterior, inclusive se a invalidação
+ * ocorrer durante a própria gravação.
+ */
+public class CacheExpiravel<K, V> {
+
+    private final String nome;
+    private final int tamanhoMaximo;
+    private final ConcurrentHashMap<K, Entrada<V>> entradas;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> carregando = new ConcurrentHashMap<>();
+
+    // Incrementada a cada invalidação; carregamentos iniciados antes dela não são gravados
+    private final AtomicLong geracao = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CacheExpiravel(String nome, int tamanhoMaximo) {
+        if (tamanhoMaximo <= 0) {
+            throw new IllegalArgumentException("tamanhoMaximo deve ser positivo: " + tamanhoMaximo);
+        }
+        this.nome = nome;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.entradas = new ConcurrentHashMap<>(Math.min(tamanhoMaximo, 1024));
+    }
+
+    public V get(K chave) {
+        Entrada<V> entrada = entradas.get(chave);
+        if (entrada == null) {
+            misses.increment();
+            return null;
+        }
+        if (entrada.expirada(System.currentTimeMillis())) {
+            if (entradas.remove(chave, entrada)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entrada.valor();
+    }
+
+    public void put(K chave, V valor, long expiraEmMs) {
+        if (expiraEmMs <= System.currentTimeMillis()) {
+            return;
+        }
+        if (entradas.size() >= tamanhoMaximo && !entradas.containsKey(chave)) {
+            abreEspaco();
+        }
+        entradas.put(chave, new Entrada<>(valor, expiraEmMs));
+    }
+
+    /**
+     * Geração atual. Quem lê da origem por fora de {@link #getOuCarrega} deve
+     * obtê-la antes da leitura e gravar com {@link #putSeGeracao}.
+     */
+    public long geracao() {
+        return geracao.get();
+    }
+
+    /**
+     * Grava somente se nenhuma invalidação ocorreu desde {@code geracaoInicial}.
+     *
+     * @return {@code false} se o valor foi descartado por estar obsoleto
+     */
+    public boolean putSeGeracao(K chave, V valor, long expiraEmMs, long geracaoInicial) {
+        if (geracao.get() != geracaoInicial || expiraEmMs <= System.currentTimeMillis()) {
+            return false;
+        }
+        if (entradas.size() >= tamanhoMaximo && !entradas.containsKey(chave)) {
+            abreEspaco();
+        }
+        Entrada<V> entrada = new Entrada<>(valor, expiraEmMs);
+        entradas.put(chave, entrada);
+        // Invalidação entre a conferência e o put: ela já removeu a chave antes de o valor chegar
+        if (geracao.get() != geracaoInicial) {
+            entradas.remove(chave, entrada);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Devolve o valor em cache ou o carrega, com no máximo um carregamento em
+     * andamento por chave. As demais threads aguardam o resultado dele,
+     * inclusive exceções. Valores nulos não são armazenados.
+     */
+    public V getOuCarrega(K chave, Function<? super K, ? extends V> carregador, long ttlMs) {
+        V valor = get(chave);
+        if (valor != null) {
+            return valor;
+        }
+
+        CompletableFuture<V> meu = new CompletableFuture<>();
+        CompletableFuture<V> emAndamento = carregando.putIfAbsent(chave, meu);
+        if (emAndamento != null) {
+            return aguarda(emAndamento);
+        }
+
+        long geracaoInicial = geracao.get();
+        try {
+            valor = carregador.apply(chave);
+            if (valor != null) {
+                putSeGeracao(chave, valor, System.currentTimeMillis() + ttlMs, geracaoInicial);
+            }
+            meu.complete(valor);
+            return valor;
+        } catch (RuntimeException e) {
+            meu.completeExceptionally(e);
+            throw e;
+        } finally {
+            carregando.remove(chave, meu);
+        }
+    }
+
+    public void invalida(K chave) {
+        geracao.incrementAndGet();
+        entradas.remove(chave);
+    }
+
+    public void invalidaTudo() {
+        geracao.incrementAndGet();
+        entradas.clear();
+    }
+
+    /**
+     * Remove todas as entradas já expiradas.
+     *
+     * @return quantidade de entradas removidas
+     */
+    public int limpaExpirados() {
+        long agora = System.currentTimeMillis();
+        int removidas = 0;
+        for (Map.Entry<K, Entrada<V>> e : entradas.entrySet()) {
+            if (e.getValue().expirada(agora) && entradas.remove(e.getKey(), e.getValue())) {
+                removidas++;
+            }
+        }
+        evictions.add(removidas);
+        return removidas;
+    }
+
+    public int tamanho() {
+        return entradas.size();
+    }
+
+    public void registraMetricas(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::doubleValue)
+                .tag("cache", nome).tag("result", "hit")
+                .description("Leituras que encontraram entrada válida")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::doubleValue)
+                .tag("cache", nome).tag("result", "miss")
+                .description("Leituras sem entrada válida")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::doubleValue)
+                .tag("cache", nome)
+                .description("Entradas removidas por expiração ou por falta de espaço")
+                .register(registry);
+        Gauge.builder("cache.size", entradas, Map::size)
+                .tag("cache", nome)
+                .register(registry);
+    }
+
+    private static <V> V aguarda(CompletableFuture<V> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private void abreEspaco() {
+        if (limpaExpirados() > 0 && entradas.size() < tamanhoMaximo) {
+            return;
+        }
+        // Remove ~10% de uma vez para não pagar a varredura a cada inserção
+        int remover = Math.max(1, tamanhoMaximo / 10);
+        Iterator<K> it = entradas.keySet().iterator();
+        while (remover > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+            remover--;
+        }
+    }
+
+    private record Entrada<V>(V valor, long expiraEmMs) {
+
+        boolean expirada(long agora) {
+            return agora >= expiraEmMs;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.tabajara.login.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom para strings, seguro para uso concorrente sem lock.
+ *
+ * {@link #talvezContenha} nunca dá falso negativo: se devolver {@code false},
+ * o valor certamente não foi adicionado. Um {@code true} pode ser falso
+ * positivo, com probabilidade próxima de {@code taxaFalsoPositivo} enquanto o
+ * número de inserções não passar de {@code capacidade}. Não há remoção; para
+ * descartar valores, reconstrói-se o filtro.
+ *
+ * Os bits ficam num {@link AtomicLongArray}, e cada inserção liga seus bits
+ * com CAS, então inserções e consultas concorrentes não se bloqueiam.
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long totalBits;
+    private final int funcoes;
+    private final long capacidade;
+    private final AtomicLong insercoes = new AtomicLong();
+
+    public FiltroBloom(long capacidade, double taxaFalsoPositivo) {
+        if (capacidade <= 0 || taxaFalsoPositivo <= 0 || taxaFalsoPositivo >= 1) {
+            throw new IllegalArgumentException("Parâmetros inválidos: capacidade=" + capacidade
+                    + ", taxaFalsoPositivo=" + taxaFalsoPositivo);
+        }
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-capacidade * Math.log(taxaFalsoPositivo) / (ln2 * ln2));
+        this.bits = new AtomicLongArray((int) Math.max(1, (m + 63) / 64));
+        this.totalBits = (long) bits.length() * 64;
+        this.funcoes = Math.max(1, (int) Math.round((double) totalBits / capacidade * ln2));
+        this.capacidade = capacidade;
+    }
+
+    public void adiciona(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funcoes; i++) {
+            liga(indice(h1 + i * h2));
+        }
+        insercoes.incrementAndGet();
+    }
+
+    public boolean talvezContenha(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funcoes; i++) {
+            long bit = indice(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Inserções feitas até agora (repetições contam). Acima de {@link #capacidade()}
+     * a taxa de falsos positivos passa da configurada e vale reconstruir o filtro.
+     */
+    public long insercoes() {
+        return insercoes.get();
+    }
+
+    public long capacidade() {
+        return capacidade;
+    }
+
+    public long tamanhoEmBytes() {
+        return totalBits / 8;
+    }
+
+    private long indice(int combinado) {
+        // Kirsch-Mitzenmacher: k índices a partir de dois hashes de 32 bits
+        return Integer.toUnsignedLong(combinado) % totalBits;
+    }
+
+    private void liga(long bit) {
+        int palavra = (int) (bit >>> 6);
+        long mascara = 1L << bit;
+        long atual;
+        do {
+            atual = bits.get(palavra);
+            if ((atual & mascara) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(palavra, atual, atual | mascara));
+    }
+
+    // FNV-1a de 64 bits sobre os chars, seguido do finalizador do MurmurHash3 para espalhar os bits
+    private static long hash64(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,128 @@
+package com.tabajara.login.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita quantas conexões podem estar em uso ao mesmo tempo com um
+ * {@link Semaphore} justo, antes de pedir uma conexão ao pool.
+ *
+ * Com threads virtuais o número de requisições simultâneas deixa de ser
+ * limitado pelo pool do Tomcat, e milhares delas podem chegar juntas ao
+ * Hikari. Aqui elas esperam em ordem de chegada (estacionar uma thread virtual
+ * no semáforo é barato) e desistem após {@code maxEsperaMs} com
+ * {@link SQLTransientConnectionException}, em vez de todas disputarem o pool
+ * até o {@code connection-timeout}. A permissão é devolvida quando a conexão
+ * é fechada.
+ */
+public class DataSourceLimitado extends DelegatingDataSource {
+
+    private final Semaphore permissoes;
+    private final long maxEsperaMs;
+    private final Timer tempoEspera;
+    private final Counter rejeicoes;
+
+    public DataSourceLimitado(DataSource delegate, int permissoes, long maxEsperaMs, MeterRegistry meterRegistry) {
+        super(delegate);
+        this.permissoes = new Semaphore(permissoes, true);
+        this.maxEsperaMs = maxEsperaMs;
+
+        this.tempoEspera = Timer.builder("db.concurrency.wait")
+                .description("Espera por uma permissão de conexão ao banco")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejeicoes = Counter.builder("db.concurrency.rejected")
+                .description("Pedidos de conexão que desistiram após database.concurrency.max-wait-ms")
+                .register(meterRegistry);
+        Gauge.builder("db.concurrency.waiting", this.permissoes, Semaphore::getQueueLength)
+                .description("Threads aguardando permissão de conexão")
+                .register(meterRegistry);
+        Gauge.builder("db.concurrency.available", this.permissoes, Semaphore::availablePermits)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquire();
+        return abre(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquire();
+        return abre(() -> super.getConnection(username, password));
+    }
+
+    private void adquire() throws SQLException {
+        long inicio = System.nanoTime();
+        boolean obtida;
+        try {
+            obtida = permissoes.tryAcquire(maxEsperaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido aguardando conexão", e);
+        }
+        tempoEspera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        if (!obtida) {
+            rejeicoes.increment();
+            throw new SQLTransientConnectionException(
+                    "Limite de conexões simultâneas atingido após " + maxEsperaMs + " ms");
+        }
+    }
+
+    private Connection abre(AberturaConexao abertura) throws SQLException {
+        Connection conexao;
+        try {
+            conexao = abertura.abre();
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+        AtomicBoolean fechada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    switch (metodo.getName()) {
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> { }
+                    }
+                    if (metodo.getName().equals("close") && fechada.compareAndSet(false, true)) {
+                        try {
+                            return metodo.invoke(conexao, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        } finally {
+                            permissoes.release();
+                        }
+                    }
+                    // Connection.unwrap/isWrapperFor continuam chegando à conexão do driver
+                    try {
+                        return metodo.invoke(conexao, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface AberturaConexao {
+        Connection abre() throws SQLException;
+    }
+}
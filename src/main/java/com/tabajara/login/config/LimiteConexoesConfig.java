@@ -0,0 +1,49 @@
+package com.tabajara.login.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Envolve o {@link DataSource} da aplicação em um {@link DataSourceLimitado}
+ * quando {@code database.concurrency.enabled=true} (ligado pelo perfil
+ * {@code virtual}). JPA, {@code JdbcTemplate} e os gravadores em lote passam
+ * todos pelo mesmo limite.
+ */
+@Configuration
+@ConditionalOnProperty(name = "database.concurrency.enabled", havingValue = "true")
+public class LimiteConexoesConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(LimiteConexoesConfig.class);
+
+    // static: o post-processor é criado antes dos demais beans desta configuração
+    @Bean
+    public static BeanPostProcessor limiteConexoesPostProcessor(Environment environment,
+                                                                ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof DataSourceLimitado) {
+                    return bean;
+                }
+                // 0 = o tamanho do pool: ninguém espera dentro do Hikari
+                int permissoes = environment.getProperty("database.concurrency.permits", Integer.class, 0);
+                if (permissoes <= 0) {
+                    permissoes = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                }
+                long maxEsperaMs = environment.getProperty("database.concurrency.max-wait-ms", Long.class, 2000L);
+                logger.info("DataSource '{}' limitado a {} conexões simultâneas (espera máxima {} ms)",
+                        beanName, permissoes, maxEsperaMs);
+                return new DataSourceLimitado(dataSource, permissoes, maxEsperaMs, meterRegistry.getObject());
+            }
+        };
+    }
+}
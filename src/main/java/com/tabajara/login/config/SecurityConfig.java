@@ -1,20 +1,34 @@
 package com.tabajara.login.config;
 
+import com.tabajara.login.security.CalibradorHashSenha;
+import com.tabajara.login.security.HashSenhaExecutor;
 import com.tabajara.login.security.JwtAuthenticationEntryPoint;
 import com.tabajara.login.security.JwtAuthenticationFilter;
+import com.tabajara.login.security.PasswordEncoderLimitado;
+import com.tabajara.login.security.VerificacaoTokenFilter;
+import com.tabajara.login.service.IntrospeccaoService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.util.StringUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -34,8 +48,23 @@ public class SecurityConfig {
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoderLimitado passwordEncoder(HashSenhaExecutor hashSenhaExecutor,
+                                                  CalibradorHashSenha calibradorHashSenha,
+                                                  MeterRegistry meterRegistry) {
+        return new PasswordEncoderLimitado(calibradorHashSenha.cria(), hashSenhaExecutor, meterRegistry);
+    }
+
+    // Antes da cadeia do Spring Security (e do RequestContextFilter), depois do MDC e das métricas HTTP
+    @Bean
+    public FilterRegistrationBean<VerificacaoTokenFilter> verificacaoTokenFilter(
+            IntrospeccaoService introspeccaoService,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.verify.cache-seconds:5}") long cacheSegundos) {
+        FilterRegistrationBean<VerificacaoTokenFilter> registro = new FilterRegistrationBean<>(
+                new VerificacaoTokenFilter(introspeccaoService, meterRegistry, cacheSegundos));
+        registro.addUrlPatterns(VerificacaoTokenFilter.URL);
+        registro.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        return registro;
     }
 
     @Bean
@@ -44,7 +73,66 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    /**
+     * Endpoints consumidos por outros serviços, com credencial própria (HTTP Basic) ou JWT de administrador:
+     * {@code /actuator/prometheus} para o usuário de coleta (papel METRICS) e {@code /api/auth/introspect}
+     * para o cliente de introspecção (papel INTROSPECTION), como pede a RFC 7662. Sem senha configurada,
+     * o respectivo usuário não existe e só administradores têm acesso.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain servicosFilterChain(
+            HttpSecurity http,
+            @Value("${management.prometheus.scrape.username:prometheus}") String usuarioMetricas,
+            @Value("${management.prometheus.scrape.password:}") String senhaMetricas,
+            @Value("${jwt.introspection.client.username:gateway}") String usuarioIntrospeccao,
+            @Value("${jwt.introspection.client.password:}") String senhaIntrospeccao) throws Exception {
+        InMemoryUserDetailsManager usuarios = new InMemoryUserDetailsManager();
+        adicionaUsuarioServico(usuarios, usuarioMetricas, senhaMetricas, "METRICS");
+        adicionaUsuarioServico(usuarios, usuarioIntrospeccao, senhaIntrospeccao, "INTROSPECTION");
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(usuarios);
+        provider.setPasswordEncoder(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+
+        http
+                .securityMatcher("/actuator/prometheus", "/api/auth/introspect")
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .authenticationManager(new ProviderManager(provider))
+                .httpBasic(basic -> basic.authenticationEntryPoint(unauthorizedHandler))
+                .exceptionHandling(exception -> exception
+                        .authenticationEntryPoint(unauthorizedHandler)
+                )
+                .authorizeHttpRequests(authz -> authz
+                        .requestMatchers("/actuator/prometheus").hasAnyAuthority("ROLE_METRICS", "ROLE_ADMIN")
+                        .requestMatchers("/api/auth/introspect").hasAnyAuthority("ROLE_INTROSPECTION", "ROLE_ADMIN")
+                        .anyRequest().denyAll()
+                );
+
+        http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+
+        return http.build();
+    }
+
+    // Aceita a senha pura ou já com prefixo de encoder ({bcrypt}..., {noop}...)
+    private static void adicionaUsuarioServico(InMemoryUserDetailsManager usuarios, String usuario,
+                                               String senha, String papel) {
+        if (!StringUtils.hasText(senha)) {
+            return;
+        }
+        if (usuarios.userExists(usuario)) {
+            throw new IllegalStateException("Usuário de serviço '" + usuario + "' configurado mais de uma vez");
+        }
+        usuarios.createUser(User.withUsername(usuario)
+                .password(senha.startsWith("{") ? senha : "{noop}" + senha)
+                .roles(papel)
+                .build());
+    }
+
     @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -58,8 +146,14 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authz -> authz
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/public/**").permitAll()
+                        .requestMatchers("/.well-known/**").permitAll()
                         .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/jwtkeys/**").hasAuthority("ROLE_ADMIN")
+                        .requestMatchers("/actuator/diagnostico/**").hasAuthority("ROLE_ADMIN")
+                        .requestMatchers("/api/admin/**").hasAuthority("ROLE_ADMIN")
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        // Dispatch de erro do container (ex.: 403 das regras acima) não traz o token de novo
+                        .requestMatchers("/error").permitAll()
                         .anyRequest().authenticated()
                 );
 
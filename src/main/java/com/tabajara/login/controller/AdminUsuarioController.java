@@ -0,0 +1,101 @@
+package com.tabajara.login.controller;
+
+import com.tabajara.login.dto.ResultadoImportacao;
+import com.tabajara.login.security.LimitadorTentativas;
+import com.tabajara.login.service.BloqueioContaService;
+import com.tabajara.login.service.ExportacaoUsuariosService;
+import com.tabajara.login.service.FormatoArquivoUsuarios;
+import com.tabajara.login.service.ImportacaoUsuariosService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/usuarios")
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+@Tag(name = "Admin - Usuários", description = "Importação e exportação de usuários em massa e desbloqueio de contas")
+public class AdminUsuarioController {
+
+    private final ImportacaoUsuariosService importacaoService;
+    private final ExportacaoUsuariosService exportacaoService;
+    private final BloqueioContaService bloqueioContaService;
+    private final LimitadorTentativas limitadorTentativas;
+
+    @Autowired
+    public AdminUsuarioController(ImportacaoUsuariosService importacaoService,
+                                  ExportacaoUsuariosService exportacaoService,
+                                  BloqueioContaService bloqueioContaService,
+                                  LimitadorTentativas limitadorTentativas) {
+        this.importacaoService = importacaoService;
+        this.exportacaoService = exportacaoService;
+        this.bloqueioContaService = bloqueioContaService;
+        this.limitadorTentativas = limitadorTentativas;
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @Operation(summary = "Importação em massa",
+            description = "Uma conta por linha (NDJSON ou CSV com cabeçalho). Campos: username, email, "
+                    + "password ou password_hash (BCrypt), role opcional. O corpo é processado à medida que chega.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resumo com as linhas rejeitadas e o motivo",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResultadoImportacao.class))),
+            @ApiResponse(responseCode = "403", description = "Apenas administradores", content = @Content)
+    })
+    public ResponseEntity<ResultadoImportacao> importa(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                       InputStream corpo) throws IOException {
+        return ResponseEntity.ok(importacaoService.importa(corpo, FormatoArquivoUsuarios.de(contentType)));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Exportação em massa",
+            description = "Todas as contas, sem hashes de senha, em NDJSON (padrão) ou CSV")
+    public ResponseEntity<StreamingResponseBody> exporta(@RequestParam(defaultValue = "ndjson") String formato) {
+        FormatoArquivoUsuarios tipo = FormatoArquivoUsuarios.valueOf(formato.toUpperCase(Locale.ROOT));
+        StreamingResponseBody corpo = saida -> exportacaoService.exporta(saida, tipo);
+        return ResponseEntity.ok()
+                .contentType(tipo.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"usuarios." + tipo.name().toLowerCase(Locale.ROOT) + "\"")
+                .body(corpo);
+    }
+
+    @PostMapping("/{login}/desbloqueio")
+    @Operation(summary = "Desbloqueio de conta",
+            description = "Libera uma conta bloqueada (username ou email) antes do fim do prazo e zera "
+                    + "as tentativas de login contadas para ela nesta instância")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Conta desbloqueada", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Conta inexistente ou não bloqueada", content = @Content)
+    })
+    public ResponseEntity<Map<String, String>> desbloqueia(@PathVariable String login) {
+        limitadorTentativas.libera(login);
+        if (!bloqueioContaService.desbloqueia(login)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", "Conta inexistente ou não bloqueada"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Conta desbloqueada"));
+    }
+}
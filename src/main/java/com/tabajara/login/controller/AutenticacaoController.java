@@ -1,10 +1,23 @@
 package com.tabajara.login.controller;
 
+import com.tabajara.login.auditoria.AcaoAuditoria;
+import com.tabajara.login.auditoria.AuditoriaService;
+import com.tabajara.login.dto.IntrospeccaoRequest;
 import com.tabajara.login.dto.LoginRequest;
 import com.tabajara.login.dto.LoginResponse;
+import com.tabajara.login.dto.RefreshRequest;
 import com.tabajara.login.dto.RegisterRequest;
+import com.tabajara.login.exception.ErroRespostaWriter;
+import com.tabajara.login.exception.MuitasTentativasException;
+import com.tabajara.login.exception.RefreshTokenInvalidoException;
+import com.tabajara.login.exception.RegistroRecusadoException;
+import com.tabajara.login.exception.ServicoSobrecarregadoException;
 import com.tabajara.login.model.Usuario;
+import com.tabajara.login.model.UsuarioSnapshot;
+import com.tabajara.login.security.UsuarioAutenticado;
 import com.tabajara.login.service.IAutenticacaoService;
+import com.tabajara.login.service.IntrospeccaoService;
+import com.tabajara.login.service.PerfilService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -12,8 +25,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -21,19 +39,50 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import static com.tabajara.login.exception.ErroRespostaWriter.MESSAGE;
+import static com.tabajara.login.exception.ErroRespostaWriter.TYPE;
+import static com.tabajara.login.exception.ErroRespostaWriter.USERNAME;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
 @Tag(name = "Authentication", description = "Endpoints para autenticação e registro")
 public class AutenticacaoController {
 
+    private static final Logger logger = LoggerFactory.getLogger(AutenticacaoController.class);
+
+    private static final ErroRespostaWriter.Modelo CREDENCIAIS_INVALIDAS =
+            ErroRespostaWriter.modelo(HttpStatus.UNAUTHORIZED, "Credenciais inválidas");
+    private static final ErroRespostaWriter.Modelo REFRESH_INVALIDO =
+            ErroRespostaWriter.modelo(HttpStatus.UNAUTHORIZED, "Refresh token inválido");
+    private static final ErroRespostaWriter.Modelo ERRO_REGISTRO =
+            ErroRespostaWriter.modelo(HttpStatus.BAD_REQUEST, "Erro no registro");
+    private static final ErroRespostaWriter.Modelo SEM_PARAMETROS =
+            ErroRespostaWriter.modelo(HttpStatus.BAD_REQUEST, "Informe username e/ou email");
+    private static final ErroRespostaWriter.Modelo NAO_AUTENTICADO =
+            ErroRespostaWriter.modelo(HttpStatus.UNAUTHORIZED, "Usuário não autenticado");
+    private static final ErroRespostaWriter.Modelo NAO_ENCONTRADO =
+            ErroRespostaWriter.modelo(HttpStatus.NOT_FOUND, "Usuário não encontrado");
+    private static final ErroRespostaWriter.Modelo ERRO_INTERNO =
+            ErroRespostaWriter.modelo(HttpStatus.INTERNAL_SERVER_ERROR, "Erro interno");
+    private static final ErroRespostaWriter.Modelo LOTE_EXCEDIDO =
+            ErroRespostaWriter.modelo(HttpStatus.BAD_REQUEST, "Lote acima do limite");
+
     private final IAutenticacaoService autenticacaoService;
+    private final AuditoriaService auditoriaService;
+    private final PerfilService perfilService;
+    private final IntrospeccaoService introspeccaoService;
 
     @Autowired
-    public AutenticacaoController(IAutenticacaoService autenticacaoService) {
+    public AutenticacaoController(IAutenticacaoService autenticacaoService, AuditoriaService auditoriaService,
+                                  PerfilService perfilService, IntrospeccaoService introspeccaoService) {
         this.autenticacaoService = autenticacaoService;
+        this.auditoriaService = auditoriaService;
+        this.perfilService = perfilService;
+        this.introspeccaoService = introspeccaoService;
     }
 
     @PostMapping("/login")
@@ -43,15 +92,39 @@ public class AutenticacaoController {
                     content = { @Content(mediaType = "application/json",
                             schema = @Schema(implementation = LoginResponse.class)) }),
             @ApiResponse(responseCode = "401", description = "Credenciais inválidas",
+                    content = @Content),
+            @ApiResponse(responseCode = "429", description = "Muitas falhas recentes para a conta ou o IP; ver Retry-After",
+                    content = @Content),
+            @ApiResponse(responseCode = "503", description = "Fila de verificação de senha cheia; ver Retry-After",
                     content = @Content)
     })
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
         try {
             LoginResponse loginResponse = autenticacaoService.login(loginRequest);
             return ResponseEntity.ok(loginResponse);
+        } catch (ServicoSobrecarregadoException | MuitasTentativasException e) {
+            throw e;
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", "Credenciais inválidas", "message", e.getMessage()));
+            return ErroRespostaWriter.corpo(CREDENCIAIS_INVALIDAS).texto(MESSAGE, e.getMessage()).resposta();
+        }
+    }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Renovação do token",
+            description = "Troca um refresh token por um novo access token e um novo refresh token, sem senha. "
+                    + "Cada refresh token vale uma única vez; reutilizá-lo encerra a sessão inteira.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tokens renovados",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = LoginResponse.class)) }),
+            @ApiResponse(responseCode = "401", description = "Refresh token inválido, expirado, revogado ou reutilizado",
+                    content = @Content)
+    })
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest refreshRequest) {
+        try {
+            return ResponseEntity.ok(autenticacaoService.refresh(refreshRequest));
+        } catch (RefreshTokenInvalidoException e) {
+            return ErroRespostaWriter.corpo(REFRESH_INVALIDO).texto(MESSAGE, e.getMessage()).resposta();
         }
     }
 
@@ -68,91 +141,127 @@ public class AutenticacaoController {
             Usuario usuario = autenticacaoService.register(registerRequest);
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(Map.of("message", "Usuário registrado com sucesso", "username", usuario.getUsername()));
+        } catch (RegistroRecusadoException e) {
+            return ErroRespostaWriter.corpo(ERRO_REGISTRO).texto(MESSAGE, e.getMessage()).resposta();
+        } catch (ServicoSobrecarregadoException e) {
+            throw e;
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("error", "Erro no registro", "message", e.getMessage()));
+            // A mensagem de exceções inesperadas pode trazer SQL ou dados de outras contas
+            logger.error("Falha no registro de {}", registerRequest.getUsername(), e);
+            return ErroRespostaWriter.corpo(ERRO_REGISTRO).texto(MESSAGE, "Não foi possível concluir o registro").resposta();
+        }
+    }
+
+    @GetMapping("/disponibilidade")
+    @Operation(summary = "Disponibilidade de username e email",
+            description = "Indica se username e/ou email ainda estão livres; pensado para validação durante a digitação")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Disponibilidade de cada valor informado",
+                    content = @Content),
+            @ApiResponse(responseCode = "400", description = "Nenhum parâmetro informado",
+                    content = @Content)
+    })
+    public ResponseEntity<?> disponibilidade(@RequestParam(required = false) String username,
+                                             @RequestParam(required = false) String email) {
+        if (username == null && email == null) {
+            return ErroRespostaWriter.corpo(SEM_PARAMETROS).resposta();
         }
+        Map<String, Object> response = new HashMap<>();
+        if (username != null) {
+            response.put("usernameDisponivel", !autenticacaoService.verificaExistenciaUsername(username));
+        }
+        if (email != null) {
+            response.put("emailDisponivel", !autenticacaoService.verificaExistenciaEmail(email));
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(response);
     }
 
     @GetMapping("/profile")
     @PreAuthorize("hasAnyAuthority('ROLE_USUARIO', 'ROLE_ADMIN', 'ROLE_MODERADOR')")
-    @Operation(summary = "Perfil do usuário", description = "Retorna informações do usuário autenticado")
-    public ResponseEntity<?> getProfile(Authentication authentication) {
-
-        System.out.println("=== DEBUG PROFILE ENDPOINT ===");
-
+    @Operation(summary = "Perfil do usuário",
+            description = "Retorna informações do usuário autenticado. Responde 304 a um If-None-Match "
+                    + "com o ETag atual, normalmente sem consultar o banco.")
+    public ResponseEntity<?> getProfile(Authentication authentication,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-
-            System.out.println("Authentication object: " + authentication);
-            System.out.println("Authentication is null: " + (authentication == null));
-
-            if (authentication != null) {
-                System.out.println("Authentication.getName(): " + authentication.getName());
-                System.out.println("Authentication.getPrincipal(): " + authentication.getPrincipal());
-                System.out.println("Authentication.getAuthorities(): " + authentication.getAuthorities());
-                System.out.println("Authentication.isAuthenticated(): " + authentication.isAuthenticated());
-            }
-
-
-            Authentication contextAuth = SecurityContextHolder.getContext().getAuthentication();
-            System.out.println("SecurityContext Authentication: " + contextAuth);
-            if (contextAuth != null) {
-                System.out.println("Context Authentication.getName(): " + contextAuth.getName());
-                System.out.println("Context Authentication.getPrincipal(): " + contextAuth.getPrincipal());
+            if (authentication == null) {
+                authentication = SecurityContextHolder.getContext().getAuthentication();
             }
-
-
-            String username = null;
-            if (authentication != null && authentication.getName() != null) {
-                username = authentication.getName();
-            } else if (contextAuth != null && contextAuth.getName() != null) {
-                username = contextAuth.getName();
-            }
-
-            System.out.println("Username a ser usado: " + username);
+            String username = authentication != null ? authentication.getName() : null;
 
             if (username == null || username.isEmpty() || "anonymousUser".equals(username)) {
-                System.out.println("Username inválido ou usuário anônimo");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("error", "Usuário não autenticado", "username", String.valueOf(username)));
+                logger.debug("Perfil solicitado sem usuário autenticado: {}", username);
+                return ErroRespostaWriter.corpo(NAO_AUTENTICADO).texto(USERNAME, String.valueOf(username)).resposta();
             }
 
-            // Buscar usuário
-            System.out.println("Buscando usuário: " + username);
-            Usuario usuario = autenticacaoService.buscaPorUsername(username);
-            System.out.println("Usuário encontrado: " + (usuario != null ? usuario.getUsername() : "null"));
-
-            if (usuario == null) {
-                System.out.println("Usuário não encontrado no banco");
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Map.of("error", "Usuário não encontrado", "username", username));
+            // Tokens autocontidos trazem o id no principal: o perfil sai do cache por id
+            Long userId = switch (authentication.getPrincipal()) {
+                case UsuarioAutenticado usuario -> usuario.id();
+                case UsuarioSnapshot usuario -> usuario.getId();
+                default -> null;
+            };
+            PerfilService.Perfil perfil = userId != null
+                    ? perfilService.porId(userId)
+                    : perfilService.porUsername(username);
+            if (perfil == null) {
+                logger.debug("Usuário {} não encontrado no banco", username);
+                return ErroRespostaWriter.corpo(NAO_ENCONTRADO).texto(USERNAME, username).resposta();
             }
 
-            // Criar resposta
-            Map<String, Object> response = new HashMap<>();
-            response.put("username", usuario.getUsername());
-            response.put("email", usuario.getEmail());
-            response.put("role", usuario.getRole());
-            response.put("criadoEm", usuario.getCriadoEm());
-            response.put("ultimoLogin", usuario.getUltimoLogin());
-            response.put("debug", "SUCCESS");
+            // private: só o navegador do próprio usuário guarda; no-cache: revalida a cada uso
+            CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+            if (perfil.etag().equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(perfil.etag())
+                        .cacheControl(cacheControl)
+                        .varyBy(HttpHeaders.AUTHORIZATION)
+                        .build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(perfil.etag())
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.AUTHORIZATION)
+                    .body(perfil.json());
 
-            System.out.println("Retornando resposta: " + response);
-            System.out.println("=== FIM DEBUG PROFILE ===");
+        } catch (Exception e) {
+            logger.error("Erro ao montar o perfil", e);
 
-            return ResponseEntity.ok(response);
+            return ErroRespostaWriter.corpo(ERRO_INTERNO)
+                    .texto(MESSAGE, e.getMessage())
+                    .texto(TYPE, e.getClass().getSimpleName())
+                    .resposta();
+        }
+    }
 
-        } catch (Exception e) {
-            System.out.println("ERRO no getProfile: " + e.getClass().getSimpleName() + " - " + e.getMessage());
-            e.printStackTrace();
-
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of(
-                            "error", "Erro interno",
-                            "message", e.getMessage(),
-                            "type", e.getClass().getSimpleName()
-                    ));
+    @PostMapping("/introspect")
+    @Operation(summary = "Introspecção em lote",
+            description = "Verifica vários tokens em uma requisição, com as mesmas regras do filtro JWT "
+                    + "(assinatura, expiração, revogação e versão de segurança). Os resultados vêm na ordem "
+                    + "dos tokens enviados. Exige a credencial do cliente de introspecção (HTTP Basic) "
+                    + "ou um token de administrador.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Situação de cada token",
+                    content = @Content),
+            @ApiResponse(responseCode = "401", description = "Sem credencial do cliente de introspecção",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Autenticado sem o papel INTROSPECTION ou ADMIN",
+                    content = @Content),
+            @ApiResponse(responseCode = "400", description = "Lista vazia ou acima de jwt.introspection.max-batch",
+                    content = @Content)
+    })
+    public ResponseEntity<?> introspect(@Valid @RequestBody IntrospeccaoRequest introspeccaoRequest) {
+        List<String> tokens = introspeccaoRequest.getTokens();
+        if (tokens.size() > introspeccaoService.tamanhoMaximoLote()) {
+            return ErroRespostaWriter.corpo(LOTE_EXCEDIDO)
+                    .texto(MESSAGE, "Máximo de " + introspeccaoService.tamanhoMaximoLote() + " tokens por requisição")
+                    .resposta();
         }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(Map.of("tokens", introspeccaoService.verifica(tokens)));
     }
 
     @GetMapping("/health")
@@ -169,18 +278,26 @@ public class AutenticacaoController {
 
     @PostMapping("/logout")
     @PreAuthorize("hasAnyAuthority('ROLE_USUARIO', 'ROLE_ADMIN', 'ROLE_MODERADOR')")
-    @Operation(summary = "Logout", description = "Logout do usuário (invalidar token no frontend)")
+    @Operation(summary = "Logout",
+            description = "Revoga o access token usado na requisição até o seu vencimento. "
+                    + "Se o corpo trouxer o refresh token, a sessão inteira também é encerrada.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Instruções de logout retornadas com sucesso",
+            @ApiResponse(responseCode = "200", description = "Token revogado",
                     content = @Content),
             @ApiResponse(responseCode = "401", description = "Não autorizado - token JWT inválido ou não fornecido",
                     content = @Content)
     })
-    public ResponseEntity<?> logout() {
-        // Com JWT stateless, o logout é feito no frontend removendo o token
-        return ResponseEntity.ok(Map.of(
-                "message", "Logout realizado com sucesso",
-                "instruction", "Remova o token JWT do armazenamento local"
-        ));
+    public ResponseEntity<?> logout(Authentication authentication,
+                                    @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                    @RequestBody(required = false) RefreshRequest refreshRequest) {
+        Long userId = switch (authentication.getPrincipal()) {
+            case UsuarioAutenticado usuario -> usuario.id();
+            case UsuarioSnapshot usuario -> usuario.getId();
+            default -> null;
+        };
+        autenticacaoService.logout(authorization.startsWith("Bearer ") ? authorization.substring(7) : null,
+                refreshRequest == null ? null : refreshRequest.getRefreshToken());
+        auditoriaService.registra(AcaoAuditoria.LOGOUT, userId, authentication.getName());
+        return ResponseEntity.ok(Map.of("message", "Logout realizado com sucesso"));
     }
 }
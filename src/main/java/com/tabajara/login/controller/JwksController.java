@@ -0,0 +1,105 @@
+package com.tabajara.login.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tabajara.login.security.JwtKeyring;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigInteger;
+import java.security.interfaces.ECPublicKey;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publica as chaves públicas do keyring no formato JWKS (RFC 7517), para que
+ * outros serviços verifiquem tokens ES256 localmente.
+ *
+ * O documento é serializado uma vez e só é refeito quando o keyring muda;
+ * chaves HMAC nunca são publicadas.
+ */
+@RestController
+@Tag(name = "JWKS", description = "Chaves públicas para verificação de tokens")
+public class JwksController {
+
+    private final JwtKeyring keyring;
+    private final ObjectMapper objectMapper;
+
+    @Value("${jwt.jwks.max-age-seconds:300}")
+    private long maxAgeSegundos;
+
+    private volatile Documento documento;
+
+    @Autowired
+    public JwksController(JwtKeyring keyring, ObjectMapper objectMapper) {
+        this.keyring = keyring;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "JWKS", description = "Chaves públicas usadas para assinar tokens assimétricos")
+    public ResponseEntity<byte[]> jwks(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        Documento atual = documento;
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSegundos)).cachePublic();
+
+        if (atual.etag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(atual.etag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(atual.etag())
+                .cacheControl(cacheControl)
+                .body(atual.json());
+    }
+
+    @PostConstruct
+    @EventListener(JwtKeyring.KeyringAlteradoEvent.class)
+    public void reconstroi() throws JsonProcessingException {
+        List<Map<String, String>> chaves = new ArrayList<>();
+        for (JwtKeyring.ChaveJwt chave : keyring.chaves().values()) {
+            if (chave.verificacao() instanceof ECPublicKey publica) {
+                Map<String, String> jwk = new LinkedHashMap<>();
+                jwk.put("kty", "EC");
+                jwk.put("crv", "P-256");
+                jwk.put("use", "sig");
+                jwk.put("alg", chave.algoritmo().getValue());
+                jwk.put("kid", chave.kid());
+                jwk.put("x", coordenada(publica.getW().getAffineX()));
+                jwk.put("y", coordenada(publica.getW().getAffineY()));
+                chaves.add(jwk);
+            }
+        }
+        byte[] json = objectMapper.writeValueAsBytes(Map.of("keys", chaves));
+        documento = new Documento(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+    }
+
+    // Coordenadas P-256 têm exatamente 32 bytes, sem sinal (RFC 7518, seção 6.2.1.2)
+    private static String coordenada(BigInteger valor) {
+        byte[] bytes = valor.toByteArray();
+        byte[] fixo = new byte[32];
+        int copiar = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - copiar, fixo, 32 - copiar, copiar);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixo);
+    }
+
+    private record Documento(byte[] json, String etag) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.tabajara.login.diagnostico;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Amostragem por categoria: abaixo de {@code abaixoDe} (WARN por padrão), só
+ * uma fração dos eventos de cada logger listado é registrada.
+ *
+ * Configurado no {@code logback-spring.xml} a partir de
+ * {@code logging.sampling.categories}, no formato
+ * {@code org.hibernate.SQL=0.01,org.springframework.security=0.1}; o logger
+ * casa pelo prefixo do nome e a primeira entrada que casar vale.
+ */
+public class AmostragemTurboFilter extends TurboFilter {
+
+    private String[] prefixos = new String[0];
+    private double[] taxas = new double[0];
+    private Level abaixoDe = Level.WARN;
+
+    public void setAmostras(String amostras) {
+        String[] itens = amostras == null || amostras.isBlank() ? new String[0] : amostras.split(",");
+        String[] novosPrefixos = new String[itens.length];
+        double[] novasTaxas = new double[itens.length];
+        for (int i = 0; i < itens.length; i++) {
+            String[] par = itens[i].trim().split("=", 2);
+            if (par.length != 2) {
+                throw new IllegalArgumentException("Amostra inválida, esperado logger=taxa: " + itens[i]);
+            }
+            novosPrefixos[i] = par[0].trim();
+            novasTaxas[i] = Double.parseDouble(par[1].trim());
+        }
+        this.prefixos = novosPrefixos;
+        this.taxas = novasTaxas;
+    }
+
+    public void setAbaixoDe(String nivel) {
+        this.abaixoDe = Level.toLevel(nivel, Level.WARN);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format nulo: isDebugEnabled() e afins; sortear ali e de novo no log aplicaria a taxa duas vezes
+        if (level == null || format == null || level.isGreaterOrEqual(abaixoDe) || prefixos.length == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        String nome = logger.getName();
+        for (int i = 0; i < prefixos.length; i++) {
+            if (nome.startsWith(prefixos[i])) {
+                return ThreadLocalRandom.current().nextDouble() < taxas[i] ? FilterReply.NEUTRAL : FilterReply.DENY;
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,110 @@
+package com.tabajara.login.diagnostico;
+
+import ch.qos.logback.classic.Level;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alvos de log detalhado: usuários ou requisições cujos eventos passam a ser
+ * registrados a partir de um nível mais baixo que o configurado, sem mudar o
+ * nível global.
+ *
+ * Estático porque é lido pelo {@link DiagnosticoTurboFilter}, que o Logback
+ * instancia antes do contexto Spring. Cada alvo expira sozinho, para que um
+ * diagnóstico esquecido não deixe a instância logando em DEBUG.
+ */
+public final class DiagnosticoDirecionado {
+
+    public static final String MDC_REQUEST_ID = "requestId";
+    public static final String MDC_USER_ID = "userId";
+    public static final String MDC_USERNAME = "username";
+
+    public enum Tipo {
+        REQUEST(MDC_REQUEST_ID), USER(MDC_USER_ID), USERNAME(MDC_USERNAME);
+
+        private final String chaveMdc;
+        private final Map<String, Alvo> alvos = new ConcurrentHashMap<>();
+
+        Tipo(String chaveMdc) {
+            this.chaveMdc = chaveMdc;
+        }
+
+        public static Tipo de(String nome) {
+            return valueOf(nome.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    public record Alvo(Tipo tipo, String valor, Level nivel, long expiraEmMs) {
+    }
+
+    // Caminho rápido do filtro: sem alvos, nenhuma leitura de MDC. Escrito só sob o lock da classe
+    private static volatile boolean ativo;
+
+    private DiagnosticoDirecionado() {
+    }
+
+    public static synchronized void ativa(Tipo tipo, String valor, Level nivel, long duracaoMs) {
+        tipo.alvos.put(valor, new Alvo(tipo, valor, nivel, System.currentTimeMillis() + duracaoMs));
+        ativo = true;
+    }
+
+    public static synchronized boolean desativa(Tipo tipo, String valor) {
+        boolean removido = tipo.alvos.remove(valor) != null;
+        recalculaAtivo();
+        return removido;
+    }
+
+    public static List<Alvo> alvos() {
+        removeExpirados();
+        List<Alvo> alvos = new ArrayList<>();
+        for (Tipo tipo : Tipo.values()) {
+            alvos.addAll(tipo.alvos.values());
+        }
+        return alvos;
+    }
+
+    static boolean ativo() {
+        return ativo;
+    }
+
+    /**
+     * Nível liberado para a requisição da thread atual, ou {@code null} se ela não for alvo.
+     */
+    static Level nivelAtual() {
+        for (Tipo tipo : Tipo.values()) {
+            if (tipo.alvos.isEmpty()) {
+                continue;
+            }
+            String valor = MDC.get(tipo.chaveMdc);
+            Alvo alvo = valor == null ? null : tipo.alvos.get(valor);
+            if (alvo != null) {
+                if (alvo.expiraEmMs() > System.currentTimeMillis()) {
+                    return alvo.nivel();
+                }
+                desativa(tipo, valor);
+            }
+        }
+        return null;
+    }
+
+    private static synchronized void removeExpirados() {
+        long agora = System.currentTimeMillis();
+        for (Tipo tipo : Tipo.values()) {
+            tipo.alvos.values().removeIf(alvo -> alvo.expiraEmMs() <= agora);
+        }
+        recalculaAtivo();
+    }
+
+    private static void recalculaAtivo() {
+        boolean algum = false;
+        for (Tipo tipo : Tipo.values()) {
+            algum |= !tipo.alvos.isEmpty();
+        }
+        ativo = algum;
+    }
+}
@@ -0,0 +1,73 @@
+package com.tabajara.login.diagnostico;
+
+import ch.qos.logback.classic.Level;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoint do Actuator para ligar log detalhado de um único usuário ou requisição.
+ *
+ * <ul>
+ *   <li>{@code GET /actuator/diagnostico}: alvos ativos e quando expiram</li>
+ *   <li>{@code POST /actuator/diagnostico} com {@code tipo} ({@code user}, {@code username} ou
+ *       {@code request}), {@code valor} e, opcionalmente, {@code nivel} (DEBUG) e
+ *       {@code duracaoSegundos}: registra eventos daquele alvo a partir do nível informado</li>
+ *   <li>{@code DELETE /actuator/diagnostico/{tipo}/{valor}}: encerra antes de expirar</li>
+ * </ul>
+ *
+ * Como o {@code JwtKeyringEndpoint}, o estado é local à instância.
+ */
+@Component
+@Endpoint(id = "diagnostico")
+public class DiagnosticoEndpoint {
+
+    private final long duracaoPadraoSegundos;
+    private final long duracaoMaximaSegundos;
+
+    public DiagnosticoEndpoint(@Value("${logging.targeted.default-seconds:300}") long duracaoPadraoSegundos,
+                               @Value("${logging.targeted.max-seconds:3600}") long duracaoMaximaSegundos) {
+        this.duracaoPadraoSegundos = duracaoPadraoSegundos;
+        this.duracaoMaximaSegundos = duracaoMaximaSegundos;
+    }
+
+    @ReadOperation
+    public Map<String, Object> alvos() {
+        List<Map<String, String>> alvos = DiagnosticoDirecionado.alvos().stream()
+                .map(a -> Map.of(
+                        "tipo", a.tipo().name().toLowerCase(),
+                        "valor", a.valor(),
+                        "nivel", a.nivel().toString(),
+                        "expiraEm", Instant.ofEpochMilli(a.expiraEmMs()).toString()))
+                .toList();
+        return Map.of("alvos", alvos);
+    }
+
+    @WriteOperation
+    public Map<String, Object> ativa(String tipo, String valor, @Nullable String nivel,
+                                     @Nullable Long duracaoSegundos) {
+        Level level = nivel == null ? Level.DEBUG : Level.toLevel(nivel, null);
+        if (level == null) {
+            throw new IllegalArgumentException("Nível inválido: " + nivel);
+        }
+        long segundos = Math.min(duracaoSegundos == null ? duracaoPadraoSegundos : duracaoSegundos,
+                duracaoMaximaSegundos);
+        DiagnosticoDirecionado.ativa(DiagnosticoDirecionado.Tipo.de(tipo), valor, level, segundos * 1000);
+        return alvos();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> desativa(@Selector String tipo, @Selector String valor) {
+        DiagnosticoDirecionado.desativa(DiagnosticoDirecionado.Tipo.de(tipo), valor);
+        return alvos();
+    }
+}
@@ -0,0 +1,51 @@
+package com.tabajara.login.diagnostico;
+
+import io.micrometer.common.lang.NonNull;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Identifica cada requisição no MDC ({@code requestId}), reaproveitando o
+ * {@code X-Request-Id} do proxy quando houver e devolvendo-o na resposta.
+ * {@code userId} e {@code username} são acrescentados adiante, quando a
+ * requisição é autenticada, e todos saem do MDC ao fim da requisição.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DiagnosticoMdcFilter extends OncePerRequestFilter {
+
+    public static final String HEADER_REQUEST_ID = "X-Request-Id";
+
+    // O valor vai para o log e para o header de resposta: só aceita ids comportados
+    private static final Pattern REQUEST_ID_VALIDO = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String requestId = request.getHeader(HEADER_REQUEST_ID);
+        if (requestId == null || !REQUEST_ID_VALIDO.matcher(requestId).matches()) {
+            requestId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        }
+        MDC.put(DiagnosticoDirecionado.MDC_REQUEST_ID, requestId);
+        response.setHeader(HEADER_REQUEST_ID, requestId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(DiagnosticoDirecionado.MDC_REQUEST_ID);
+            MDC.remove(DiagnosticoDirecionado.MDC_USER_ID);
+            MDC.remove(DiagnosticoDirecionado.MDC_USERNAME);
+        }
+    }
+}
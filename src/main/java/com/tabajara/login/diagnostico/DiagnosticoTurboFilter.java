@@ -0,0 +1,27 @@
+package com.tabajara.login.diagnostico;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+/**
+ * Libera eventos abaixo do nível configurado quando a requisição atual é alvo
+ * do {@link DiagnosticoDirecionado}. Vem antes do {@link AmostragemTurboFilter}
+ * no {@code logback-spring.xml}, então o alvo também escapa da amostragem.
+ *
+ * Roda a cada chamada de log, inclusive {@code isDebugEnabled()}: sem alvos
+ * ativos custa uma leitura volátil.
+ */
+public class DiagnosticoTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!DiagnosticoDirecionado.ativo() || level == null) {
+            return FilterReply.NEUTRAL;
+        }
+        Level nivel = DiagnosticoDirecionado.nivelAtual();
+        return nivel != null && level.isGreaterOrEqual(nivel) ? FilterReply.ACCEPT : FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,19 @@
+package com.tabajara.login.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class IntrospeccaoRequest {
+    @NotEmpty(message = "Informe ao menos um token")
+    private List<String> tokens;
+
+    public IntrospeccaoRequest() {}
+
+    public IntrospeccaoRequest(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    public List<String> getTokens() { return tokens; }
+    public void setTokens(List<String> tokens) { this.tokens = tokens; }
+}
@@ -9,6 +9,8 @@ public class LoginResponse {
     private String email;
     private Role role;
     private Long expiraEm;
+    private String refreshToken;
+    private Long refreshExpiraEm;
 
     public LoginResponse() {}
 
@@ -20,6 +22,13 @@ public class LoginResponse {
         this.expiraEm = expiraEm;
     }
 
+    public LoginResponse(String token, String username, String email, Role role, Long expiraEm,
+                         String refreshToken, Long refreshExpiraEm) {
+        this(token, username, email, role, expiraEm);
+        this.refreshToken = refreshToken;
+        this.refreshExpiraEm = refreshExpiraEm;
+    }
+
     public String getToken() { return token; }
     public void setToken(String token) { this.token = token; }
 
@@ -37,4 +46,10 @@ public class LoginResponse {
 
     public Long getExpiraEm() { return expiraEm; }
     public void setExpiraEm(Long expiraEm) { this.expiraEm = expiraEm; }
+
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+
+    public Long getRefreshExpiraEm() { return refreshExpiraEm; }
+    public void setRefreshExpiraEm(Long refreshExpiraEm) { this.refreshExpiraEm = refreshExpiraEm; }
 }
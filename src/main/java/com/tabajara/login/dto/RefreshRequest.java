@@ -0,0 +1,17 @@
+package com.tabajara.login.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class RefreshRequest {
+    @NotBlank(message = "Refresh token é obrigatório")
+    private String refreshToken;
+
+    public RefreshRequest() {}
+
+    public RefreshRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+}
@@ -0,0 +1,36 @@
+package com.tabajara.login.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResultadoImportacao {
+    private long linhas;
+    private long inseridos;
+    private long rejeitados;
+    private boolean errosTruncados;
+    private final List<ErroLinha> erros = new ArrayList<>();
+
+    public long getLinhas() { return linhas; }
+    public long getInseridos() { return inseridos; }
+    public long getRejeitados() { return rejeitados; }
+    public boolean isErrosTruncados() { return errosTruncados; }
+    public List<ErroLinha> getErros() { return erros; }
+
+    public void contaLinha() { linhas++; }
+    public void contaInseridos(long quantidade) { inseridos += quantidade; }
+
+    /**
+     * Registra uma linha rejeitada; só as primeiras {@code maximoErros} são detalhadas.
+     */
+    public void rejeita(long linha, String motivo, int maximoErros) {
+        rejeitados++;
+        if (erros.size() < maximoErros) {
+            erros.add(new ErroLinha(linha, motivo));
+        } else {
+            errosTruncados = true;
+        }
+    }
+
+    public record ErroLinha(long linha, String motivo) {
+    }
+}
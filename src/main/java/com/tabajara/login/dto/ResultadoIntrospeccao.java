@@ -0,0 +1,21 @@
+package com.tabajara.login.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.tabajara.login.model.Role;
+
+/**
+ * Situação de um token, nos moldes da resposta de introspecção da RFC 7662:
+ * {@code active} e, para tokens ativos, {@code sub}, {@code userId}, {@code role}
+ * e {@code exp} (segundos desde a época). Tokens inativos trazem só o {@code reason}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ResultadoIntrospeccao(boolean active, String sub, Long userId, Role role, Long exp, String reason) {
+
+    public static ResultadoIntrospeccao ativo(String sub, Long userId, Role role, long expiraEmMs) {
+        return new ResultadoIntrospeccao(true, sub, userId, role, expiraEmMs / 1000, null);
+    }
+
+    public static ResultadoIntrospeccao inativo(String motivo) {
+        return new ResultadoIntrospeccao(false, null, null, null, null, motivo);
+    }
+}
@@ -0,0 +1,192 @@
+package com.tabajara.login.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Corpos de erro JSON montados a partir de trechos já codificados em UTF-8.
+ *
+ * Cada {@link Modelo} guarda pronto o início fixo do corpo ({@code error} e
+ * {@code status}); por requisição só os valores variáveis são escapados, e o
+ * corpo sai em um único {@code byte[]} do tamanho exato, ou direto no stream
+ * da resposta. Rejeitar uma requisição não passa por {@code ObjectMapper},
+ * mapas ou conversores de mensagem.
+ *
+ * <pre>
+ * private static final Modelo NEGADO = ErroRespostaWriter.modelo(HttpStatus.FORBIDDEN, "Access denied");
+ * return ErroRespostaWriter.corpo(NEGADO).texto(MESSAGE, ex.getMessage()).timestamp().resposta();
+ * </pre>
+ */
+public final class ErroRespostaWriter {
+
+    // Antes dos campos abaixo, que o usam na inicialização
+    private static final JsonStringEncoder ENCODER = JsonStringEncoder.getInstance();
+
+    public static final Campo MESSAGE = new Campo("message");
+    public static final Campo PATH = new Campo("path");
+    public static final Campo TYPE = new Campo("type");
+    public static final Campo DETAILS = new Campo("details");
+    public static final Campo USERNAME = new Campo("username");
+    public static final Campo FIELD_ERRORS = new Campo("fieldErrors");
+
+    private static final byte[] ASPAS = {'"'};
+    private static final byte[] NULO = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] VIRGULA = {','};
+    private static final byte[] DOIS_PONTOS = {':'};
+    private static final byte[] ABRE = {'{'};
+    private static final byte[] FECHA = {'}'};
+    private static final byte[] TIMESTAMP = new Campo("timestamp").bytes;
+
+    private ErroRespostaWriter() {
+    }
+
+    /**
+     * Início fixo de um corpo de erro, com {@code error} e {@code status} já codificados.
+     */
+    public static Modelo modelo(HttpStatus status, String erro) {
+        byte[] prefixo = ("{\"error\":\"" + new String(ENCODER.quoteAsString(erro)) + "\",\"status\":" + status.value())
+                .getBytes(StandardCharsets.UTF_8);
+        return new Modelo(status, prefixo);
+    }
+
+    public static Corpo corpo(Modelo modelo) {
+        return new Corpo(modelo);
+    }
+
+    public record Modelo(HttpStatus status, byte[] prefixo) {
+    }
+
+    /**
+     * Nome de campo já codificado, com a vírgula que o precede.
+     */
+    public static final class Campo {
+
+        private final byte[] bytes;
+
+        public Campo(String nome) {
+            this.bytes = (",\"" + new String(ENCODER.quoteAsString(nome)) + "\":").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Trechos do corpo, concatenados só em {@link #bytes()} ou {@link #escreve}.
+     * Não é thread-safe; cada requisição monta o seu.
+     */
+    public static final class Corpo {
+
+        private final HttpStatus status;
+        private byte[][] partes = new byte[16][];
+        private int quantidade;
+        private int tamanho;
+
+        private Corpo(Modelo modelo) {
+            this.status = modelo.status();
+            adiciona(modelo.prefixo());
+        }
+
+        public Corpo texto(Campo campo, String valor) {
+            adiciona(campo.bytes);
+            return valor(valor);
+        }
+
+        /**
+         * {@code timestamp} como data e hora ISO, igual ao {@code LocalDateTime} serializado pelo Jackson.
+         */
+        public Corpo timestamp() {
+            adiciona(TIMESTAMP);
+            adiciona(ASPAS);
+            adiciona(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(LocalDateTime.now()).getBytes(StandardCharsets.US_ASCII));
+            adiciona(ASPAS);
+            return this;
+        }
+
+        /**
+         * {@code timestamp} em milissegundos desde a época.
+         */
+        public Corpo timestampEpoch() {
+            adiciona(TIMESTAMP);
+            adiciona(Long.toString(System.currentTimeMillis()).getBytes(StandardCharsets.US_ASCII));
+            return this;
+        }
+
+        public Corpo mapa(Campo campo, Map<String, String> valores) {
+            adiciona(campo.bytes);
+            adiciona(ABRE);
+            boolean primeiro = true;
+            for (Map.Entry<String, String> entrada : valores.entrySet()) {
+                if (!primeiro) {
+                    adiciona(VIRGULA);
+                }
+                primeiro = false;
+                valor(entrada.getKey());
+                adiciona(DOIS_PONTOS);
+                valor(entrada.getValue());
+            }
+            adiciona(FECHA);
+            return this;
+        }
+
+        public byte[] bytes() {
+            byte[] corpo = new byte[tamanho + 1];
+            int posicao = 0;
+            for (int i = 0; i < quantidade; i++) {
+                System.arraycopy(partes[i], 0, corpo, posicao, partes[i].length);
+                posicao += partes[i].length;
+            }
+            corpo[posicao] = '}';
+            return corpo;
+        }
+
+        public ResponseEntity<byte[]> resposta() {
+            return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(bytes());
+        }
+
+        public ResponseEntity<byte[]> resposta(String header, String valor) {
+            return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).header(header, valor).body(bytes());
+        }
+
+        /**
+         * Escreve status, cabeçalhos e corpo direto na resposta, sem montar o array completo.
+         */
+        public void escreve(HttpServletResponse response) throws IOException {
+            response.setStatus(status.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(tamanho + 1);
+            ServletOutputStream saida = response.getOutputStream();
+            for (int i = 0; i < quantidade; i++) {
+                saida.write(partes[i]);
+            }
+            saida.write('}');
+        }
+
+        private Corpo valor(String valor) {
+            if (valor == null) {
+                adiciona(NULO);
+            } else {
+                adiciona(ASPAS);
+                adiciona(ENCODER.quoteAsUTF8(valor));
+                adiciona(ASPAS);
+            }
+            return this;
+        }
+
+        private void adiciona(byte[] parte) {
+            if (quantidade == partes.length) {
+                partes = Arrays.copyOf(partes, quantidade * 2);
+            }
+            partes[quantidade++] = parte;
+            tamanho += parte.length;
+        }
+    }
+}
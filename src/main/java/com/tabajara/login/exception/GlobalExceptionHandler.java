@@ -1,29 +1,71 @@
 package com.tabajara.login.exception;
 
+import com.tabajara.login.auditoria.AcaoAuditoria;
+import com.tabajara.login.auditoria.AuditoriaService;
+import com.tabajara.login.security.UsuarioAutenticado;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
+import static com.tabajara.login.exception.ErroRespostaWriter.DETAILS;
+import static com.tabajara.login.exception.ErroRespostaWriter.FIELD_ERRORS;
+import static com.tabajara.login.exception.ErroRespostaWriter.MESSAGE;
+import static com.tabajara.login.exception.ErroRespostaWriter.TYPE;
+
+/**
+ * Corpos de erro montados pelo {@link ErroRespostaWriter}; os logs de falhas
+ * repetidas passam pelo {@link LogAmostrado}.
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private static final ErroRespostaWriter.Modelo VALIDACAO =
+            ErroRespostaWriter.modelo(HttpStatus.BAD_REQUEST, "Validation failed");
+    private static final ErroRespostaWriter.Modelo AUTENTICACAO =
+            ErroRespostaWriter.modelo(HttpStatus.UNAUTHORIZED, "Authentication failed");
+    private static final ErroRespostaWriter.Modelo ACESSO_NEGADO =
+            ErroRespostaWriter.modelo(HttpStatus.FORBIDDEN, "Access denied");
+    private static final ErroRespostaWriter.Modelo SOBRECARREGADO =
+            ErroRespostaWriter.modelo(HttpStatus.SERVICE_UNAVAILABLE, "Service unavailable");
+    private static final ErroRespostaWriter.Modelo MUITAS_TENTATIVAS =
+            ErroRespostaWriter.modelo(HttpStatus.TOO_MANY_REQUESTS, "Too many requests");
+    private static final ErroRespostaWriter.Modelo ERRO_EXECUCAO =
+            ErroRespostaWriter.modelo(HttpStatus.BAD_REQUEST, "Runtime error");
+    private static final ErroRespostaWriter.Modelo ERRO_INTERNO =
+            ErroRespostaWriter.modelo(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error");
+
+    private final AuditoriaService auditoriaService;
+    private final LogAmostrado logAmostrado;
+
+    @Autowired
+    public GlobalExceptionHandler(AuditoriaService auditoriaService, LogAmostrado logAmostrado) {
+        this.auditoriaService = auditoriaService;
+        this.logAmostrado = logAmostrado;
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, Object>> handleValidationExceptions(
+    public ResponseEntity<byte[]> handleValidationExceptions(
             MethodArgumentNotValidException ex) {
-        logger.warn("Validation error: {}", ex.getMessage());
+        long suprimidos = logAmostrado.registra(ex.getClass());
+        if (suprimidos != LogAmostrado.SUPRIMIDO) {
+            logger.warn("Validation error ({} semelhantes suprimidos): {}", suprimidos, ex.getMessage());
+        }
 
         Map<String, String> fieldErrors = new HashMap<>();
         ex.getBindingResult().getAllErrors().forEach((error) -> {
@@ -32,67 +74,101 @@ public class GlobalExceptionHandler {
             fieldErrors.put(fieldName, errorMessage);
         });
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "Validation failed");
-        response.put("status", HttpStatus.BAD_REQUEST.value());
-        response.put("timestamp", LocalDateTime.now());
-        response.put("fieldErrors", fieldErrors);
-
-        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        return ErroRespostaWriter.corpo(VALIDACAO)
+                .timestamp()
+                .mapa(FIELD_ERRORS, fieldErrors)
+                .resposta();
     }
 
     @ExceptionHandler(AuthenticationException.class)
-    public ResponseEntity<Map<String, Object>> handleAuthenticationException(AuthenticationException ex) {
-        logger.warn("Authentication error: {}", ex.getMessage());
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "Authentication failed");
-        response.put("message", ex.getMessage());
-        response.put("status", HttpStatus.UNAUTHORIZED.value());
-        response.put("timestamp", LocalDateTime.now());
-
-        return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
+    public ResponseEntity<byte[]> handleAuthenticationException(AuthenticationException ex) {
+        long suprimidos = logAmostrado.registra(ex.getClass());
+        if (suprimidos != LogAmostrado.SUPRIMIDO) {
+            logger.warn("Authentication error ({} semelhantes suprimidos): {}", suprimidos, ex.getMessage());
+        }
+        auditoriaService.registra(AcaoAuditoria.NAO_AUTORIZADO, null, ex.getClass().getSimpleName());
+
+        return ErroRespostaWriter.corpo(AUTENTICACAO)
+                .texto(MESSAGE, ex.getMessage())
+                .timestamp()
+                .resposta();
     }
 
     @ExceptionHandler(AccessDeniedException.class)
-    public ResponseEntity<Map<String, Object>> handleAccessDeniedException(AccessDeniedException ex) {
-        logger.warn("Access denied: {}", ex.getMessage());
+    public ResponseEntity<byte[]> handleAccessDeniedException(AccessDeniedException ex) {
+        long suprimidos = logAmostrado.registra(ex.getClass());
+        if (suprimidos != LogAmostrado.SUPRIMIDO) {
+            logger.warn("Access denied ({} semelhantes suprimidos): {}", suprimidos, ex.getMessage());
+        }
+        auditoriaService.registra(AcaoAuditoria.ACESSO_NEGADO, usuarioAtual(), ex.getMessage());
+
+        return ErroRespostaWriter.corpo(ACESSO_NEGADO)
+                .texto(MESSAGE, ex.getMessage())
+                .timestamp()
+                .resposta();
+    }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "Access denied");
-        response.put("message", ex.getMessage());
-        response.put("status", HttpStatus.FORBIDDEN.value());
-        response.put("timestamp", LocalDateTime.now());
+    @ExceptionHandler(ServicoSobrecarregadoException.class)
+    public ResponseEntity<byte[]> handleServicoSobrecarregado(ServicoSobrecarregadoException ex) {
+        long suprimidos = logAmostrado.registra(ex.getClass());
+        if (suprimidos != LogAmostrado.SUPRIMIDO) {
+            logger.warn("Service overloaded ({} semelhantes suprimidos): {}", suprimidos, ex.getMessage());
+        }
+
+        return ErroRespostaWriter.corpo(SOBRECARREGADO)
+                .texto(MESSAGE, ex.getMessage())
+                .timestamp()
+                .resposta(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSegundos()));
+    }
 
-        return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
+    @ExceptionHandler(MuitasTentativasException.class)
+    public ResponseEntity<byte[]> handleMuitasTentativas(MuitasTentativasException ex) {
+        long suprimidos = logAmostrado.registra(ex.getClass());
+        if (suprimidos != LogAmostrado.SUPRIMIDO) {
+            logger.warn("Too many attempts ({} semelhantes suprimidos): {}", suprimidos, ex.getMessage());
+        }
+
+        return ErroRespostaWriter.corpo(MUITAS_TENTATIVAS)
+                .texto(MESSAGE, ex.getMessage())
+                .timestamp()
+                .resposta(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSegundos()));
     }
 
+    // Erros inesperados também são amostrados, mas a ocorrência registrada mantém o stack trace
     @ExceptionHandler(RuntimeException.class)
-    public ResponseEntity<Map<String, Object>> handleRuntimeException(RuntimeException ex) {
-        logger.error("Runtime exception: {} - {}", ex.getClass().getSimpleName(), ex.getMessage(), ex);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "Runtime error");
-        response.put("message", ex.getMessage());
-        response.put("type", ex.getClass().getSimpleName());
-        response.put("status", HttpStatus.BAD_REQUEST.value());
-        response.put("timestamp", LocalDateTime.now());
-
-        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<byte[]> handleRuntimeException(RuntimeException ex) {
+        long suprimidos = logAmostrado.registra(ex.getClass());
+        if (suprimidos != LogAmostrado.SUPRIMIDO) {
+            logger.error("Runtime exception ({} semelhantes suprimidos): {} - {}",
+                    suprimidos, ex.getClass().getSimpleName(), ex.getMessage(), ex);
+        }
+
+        return ErroRespostaWriter.corpo(ERRO_EXECUCAO)
+                .texto(MESSAGE, ex.getMessage())
+                .texto(TYPE, ex.getClass().getSimpleName())
+                .timestamp()
+                .resposta();
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGeneralException(Exception ex) {
-        logger.error("Unexpected error: {} - {}", ex.getClass().getSimpleName(), ex.getMessage(), ex);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "Internal server error");
-        response.put("message", "An unexpected error occurred");
-        response.put("type", ex.getClass().getSimpleName());
-        response.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        response.put("timestamp", LocalDateTime.now());
-        response.put("details", ex.getMessage());
-
-        return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+    public ResponseEntity<byte[]> handleGeneralException(Exception ex) {
+        long suprimidos = logAmostrado.registra(ex.getClass());
+        if (suprimidos != LogAmostrado.SUPRIMIDO) {
+            logger.error("Unexpected error ({} semelhantes suprimidos): {} - {}",
+                    suprimidos, ex.getClass().getSimpleName(), ex.getMessage(), ex);
+        }
+
+        return ErroRespostaWriter.corpo(ERRO_INTERNO)
+                .texto(MESSAGE, "An unexpected error occurred")
+                .texto(TYPE, ex.getClass().getSimpleName())
+                .timestamp()
+                .texto(DETAILS, ex.getMessage())
+                .resposta();
+    }
+
+    private static Long usuarioAtual() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UsuarioAutenticado usuario
+                ? usuario.id() : null;
     }
-}
\ No newline at end of file
+}
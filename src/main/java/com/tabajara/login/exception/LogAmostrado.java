@@ -0,0 +1,66 @@
+package com.tabajara.login.exception;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limita o log de erros repetidos: por chave, só a primeira ocorrência de
+ * cada janela é registrada, acompanhada do número de ocorrências suprimidas
+ * desde o registro anterior.
+ *
+ * Durante uma varredura ou ataque de credenciais, milhares de 401 idênticos
+ * por segundo viram uma linha por janela. Chaves devem ter cardinalidade baixa
+ * (a classe da exceção, por exemplo); acima de {@code logging.sampling.max-keys}
+ * o mapa é esvaziado.
+ */
+@Component
+public class LogAmostrado {
+
+    public static final long SUPRIMIDO = -1;
+
+    private final ConcurrentHashMap<Object, Janela> janelas = new ConcurrentHashMap<>();
+    private final long janelaMs;
+    private final int maximoChaves;
+
+    @Autowired
+    public LogAmostrado(@Value("${logging.sampling.window-ms:10000}") long janelaMs,
+                        @Value("${logging.sampling.max-keys:1000}") int maximoChaves) {
+        this.janelaMs = janelaMs;
+        this.maximoChaves = maximoChaves;
+    }
+
+    /**
+     * @return {@link #SUPRIMIDO} se a ocorrência não deve ser registrada; caso
+     * contrário, quantas ocorrências da mesma chave foram suprimidas antes desta
+     */
+    public long registra(Object chave) {
+        if (janelaMs <= 0) {
+            return 0;
+        }
+        long agora = System.currentTimeMillis();
+        Janela janela = janelas.get(chave);
+        if (janela == null) {
+            if (janelas.size() >= maximoChaves) {
+                janelas.clear();
+            }
+            janela = janelas.computeIfAbsent(chave, k -> new Janela());
+        }
+        long inicio = janela.inicio.get();
+        if (agora - inicio >= janelaMs && janela.inicio.compareAndSet(inicio, agora)) {
+            return janela.suprimidos.sumThenReset();
+        }
+        janela.suprimidos.increment();
+        return SUPRIMIDO;
+    }
+
+    private static final class Janela {
+        // Long.MIN_VALUE / 2: a primeira ocorrência sempre abre uma janela
+        private final AtomicLong inicio = new AtomicLong(Long.MIN_VALUE / 2);
+        private final LongAdder suprimidos = new LongAdder();
+    }
+}
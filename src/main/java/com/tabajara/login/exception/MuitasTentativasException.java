@@ -0,0 +1,19 @@
+package com.tabajara.login.exception;
+
+/**
+ * Lançada quando o limite de falhas de login por conta ou por IP foi atingido.
+ * Vira 429 com {@code Retry-After} no {@link GlobalExceptionHandler}.
+ */
+public class MuitasTentativasException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    public MuitasTentativasException(String message, long retryAfterSegundos) {
+        super(message);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
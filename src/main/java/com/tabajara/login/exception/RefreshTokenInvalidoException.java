@@ -0,0 +1,11 @@
+package com.tabajara.login.exception;
+
+/**
+ * Refresh token inexistente, expirado, revogado ou reutilizado.
+ */
+public class RefreshTokenInvalidoException extends RuntimeException {
+
+    public RefreshTokenInvalidoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.tabajara.login.exception;
+
+/**
+ * Registro recusado (username ou email já em uso), com uma mensagem
+ * que pode ir para o cliente.
+ */
+public class RegistroRecusadoException extends RuntimeException {
+
+    public RegistroRecusadoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.tabajara.login.exception;
+
+/**
+ * Lançada quando um recurso limitado (como o pool de hash de senhas) não
+ * aceita mais trabalho. Vira 503 com {@code Retry-After} no {@link GlobalExceptionHandler}.
+ */
+public class ServicoSobrecarregadoException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    public ServicoSobrecarregadoException(String message, long retryAfterSegundos) {
+        super(message);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
@@ -0,0 +1,70 @@
+package com.tabajara.login.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Refresh token opaco. Só o hash SHA-256 do valor é gravado.
+ *
+ * Todos os tokens gerados a partir de um mesmo login compartilham a
+ * {@code familia}. Cada uso marca {@code usadoEm} e emite o sucessor; apresentar
+ * um token já usado indica que ele vazou, e a família inteira é revogada.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_familia", columnList = "familia"),
+        @Index(name = "idx_refresh_tokens_expira_em", columnList = "expira_em")
+})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @Column(nullable = false, length = 36)
+    private String familia;
+
+    // Versão de segurança do usuário na emissão; se mudar, a família deixa de valer
+    @Column(name = "versao_seguranca", nullable = false)
+    private int versaoSeguranca;
+
+    @Column(name = "criado_em", nullable = false)
+    private LocalDateTime criadoEm = LocalDateTime.now();
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    @Column(name = "usado_em")
+    private LocalDateTime usadoEm;
+
+    @Column(nullable = false)
+    private boolean revogado;
+
+    public RefreshToken() {}
+
+    public RefreshToken(String tokenHash, Usuario usuario, String familia, int versaoSeguranca, LocalDateTime expiraEm) {
+        this.tokenHash = tokenHash;
+        this.usuario = usuario;
+        this.familia = familia;
+        this.versaoSeguranca = versaoSeguranca;
+        this.expiraEm = expiraEm;
+    }
+
+    public Long getId() { return id; }
+    public String getTokenHash() { return tokenHash; }
+    public Usuario getUsuario() { return usuario; }
+    public String getFamilia() { return familia; }
+    public int getVersaoSeguranca() { return versaoSeguranca; }
+    public LocalDateTime getCriadoEm() { return criadoEm; }
+    public LocalDateTime getExpiraEm() { return expiraEm; }
+    public LocalDateTime getUsadoEm() { return usadoEm; }
+    public boolean isRevogado() { return revogado; }
+}
@@ -1,6 +1,18 @@
 package com.tabajara.login.model;
 
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
 public enum Role {
 
-    USUARIO, ADMIN, MODERADOR
+    USUARIO, ADMIN, MODERADOR;
+
+    private final List<GrantedAuthority> authorities =
+            List.of(new SimpleGrantedAuthority("ROLE_" + name()));
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
 }
@@ -0,0 +1,43 @@
+package com.tabajara.login.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Access token revogado antes do vencimento, identificado pelo {@code jti}.
+ * A linha só precisa existir até {@code expiraEm}, quando o próprio token deixa de valer.
+ */
+@Entity
+@Table(name = "tokens_revogados", indexes = {
+        @Index(name = "idx_tokens_revogados_expira_em", columnList = "expira_em"),
+        @Index(name = "idx_tokens_revogados_revogado_em", columnList = "revogado_em")
+})
+public class TokenRevogado {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    @Column(name = "revogado_em", nullable = false)
+    private LocalDateTime revogadoEm = LocalDateTime.now();
+
+    public TokenRevogado() {}
+
+    public TokenRevogado(String jti, Long usuarioId, LocalDateTime expiraEm) {
+        this.jti = jti;
+        this.usuarioId = usuarioId;
+        this.expiraEm = expiraEm;
+    }
+
+    public String getJti() { return jti; }
+    public Long getUsuarioId() { return usuarioId; }
+    public LocalDateTime getExpiraEm() { return expiraEm; }
+    public LocalDateTime getRevogadoEm() { return revogadoEm; }
+}
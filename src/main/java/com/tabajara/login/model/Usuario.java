@@ -1,34 +1,40 @@
 package com.tabajara.login.model;
 
+import com.tabajara.login.service.UsuarioAlteracaoListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.List;
+import java.util.Objects;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "usuarios")
+// Mesmos nomes que o Postgres dá às constraints UNIQUE do init.sql; o registro traduz a violação por eles
+@Table(name = "usuarios", uniqueConstraints = {
+        @UniqueConstraint(name = Usuario.CONSTRAINT_USERNAME, columnNames = "username"),
+        @UniqueConstraint(name = Usuario.CONSTRAINT_EMAIL, columnNames = "email")
+})
+@EntityListeners(UsuarioAlteracaoListener.class)
 public class Usuario implements UserDetails {
 
+    public static final String CONSTRAINT_USERNAME = "usuarios_username_key";
+    public static final String CONSTRAINT_EMAIL = "usuarios_email_key";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @NotBlank
     @Size(max = 50)
-    @Column(unique = true)
     private String username;
 
     @NotBlank
     @Email
     @Size(max = 100)
-    @Column(unique = true)
     private String email;
 
     @NotBlank
@@ -46,6 +52,10 @@ public class Usuario implements UserDetails {
     @Column(name = "conta_nao_bloqueada")
     private boolean contaNaoBloqueada = true;
 
+    // Fim de um bloqueio automático; nulo em bloqueios sem prazo
+    @Column(name = "bloqueado_ate")
+    private LocalDateTime bloqueadoAte;
+
     @Column(name = "credencial_nao_expirada")
     private boolean credencialNaoExpirada = true;
 
@@ -55,6 +65,10 @@ public class Usuario implements UserDetails {
     @Column(name = "ultimo_login")
     private LocalDateTime ultimoLogin;
 
+    // Incrementada a cada mudança que deve invalidar tokens já emitidos
+    @Column(name = "versao_seguranca", nullable = false, columnDefinition = "integer not null default 0")
+    private int versaoSeguranca;
+
     public Usuario() {}
 
     public Usuario(String username, String email, String password, Role role) {
@@ -66,8 +80,7 @@ public class Usuario implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-
-        return List.of(new SimpleGrantedAuthority("ROLE_" + this.role.name()));
+        return this.role.getAuthorities();
     }
 
     @Override
@@ -108,14 +121,43 @@ public class Usuario implements UserDetails {
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
 
-    public void setPassword(String password) { this.password = password; }
+    public void setPassword(String password) {
+        if (!Objects.equals(this.password, password)) {
+            this.versaoSeguranca++;
+        }
+        this.password = password;
+    }
 
     public Role getRole() { return role; }
-    public void setRole(Role role) { this.role = role; }
+    public void setRole(Role role) {
+        if (this.role != role) {
+            this.versaoSeguranca++;
+        }
+        this.role = role;
+    }
+
+    public void setAtivo(boolean ativo) {
+        if (this.ativo != ativo) {
+            this.versaoSeguranca++;
+        }
+        this.ativo = ativo;
+    }
+
+    public void setContaNaoBloqueada(boolean contaNaoBloqueada) {
+        if (this.contaNaoBloqueada != contaNaoBloqueada) {
+            this.versaoSeguranca++;
+        }
+        this.contaNaoBloqueada = contaNaoBloqueada;
+    }
+
+    public LocalDateTime getBloqueadoAte() { return bloqueadoAte; }
+    public void setBloqueadoAte(LocalDateTime bloqueadoAte) { this.bloqueadoAte = bloqueadoAte; }
 
     public LocalDateTime getCriadoEm() { return criadoEm; }
     public void setCriadoEm(LocalDateTime createdAt) { this.criadoEm = createdAt; }
 
     public LocalDateTime getUltimoLogin() { return ultimoLogin; }
     public void setUltimoLogin(LocalDateTime lastLogin) { this.ultimoLogin = lastLogin; }
+
+    public int getVersaoSeguranca() { return versaoSeguranca; }
 }
@@ -0,0 +1,82 @@
+package com.tabajara.login.model;
+
+import com.tabajara.login.security.IdentidadeToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+
+/**
+ * Cópia imutável dos dados de {@link Usuario} necessários para autenticar.
+ * Pode ser compartilhada entre threads e mantida em cache sem prender a
+ * entidade a uma sessão JPA.
+ */
+public final class UsuarioSnapshot implements UserDetails, IdentidadeToken {
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String password;
+    private final Role role;
+    private final boolean ativo;
+    private final boolean contaNaoExpirada;
+    private final boolean contaNaoBloqueada;
+    private final boolean credencialNaoExpirada;
+    private final int versaoSeguranca;
+
+    public UsuarioSnapshot(Usuario usuario) {
+        this.id = usuario.getId();
+        this.username = usuario.getUsername();
+        this.email = usuario.getEmail();
+        this.password = usuario.getPassword();
+        this.role = usuario.getRole();
+        this.ativo = usuario.isEnabled();
+        this.contaNaoExpirada = usuario.isAccountNonExpired();
+        this.contaNaoBloqueada = usuario.isAccountNonLocked();
+        this.credencialNaoExpirada = usuario.isCredentialsNonExpired();
+        this.versaoSeguranca = usuario.getVersaoSeguranca();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return role.getAuthorities();
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return contaNaoExpirada;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return contaNaoBloqueada;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return credencialNaoExpirada;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ativo;
+    }
+
+    public Long getId() { return id; }
+
+    public String getEmail() { return email; }
+
+    public Role getRole() { return role; }
+
+    public int getVersaoSeguranca() { return versaoSeguranca; }
+}
@@ -0,0 +1,35 @@
+package com.tabajara.login.repository;
+
+import com.tabajara.login.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // Token e usuário numa única consulta
+    @Query("SELECT r FROM RefreshToken r JOIN FETCH r.usuario WHERE r.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashComUsuario(@Param("tokenHash") String tokenHash);
+
+    // Compare-and-set: só um de dois usos concorrentes do mesmo token consegue marcá-lo
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.usadoEm = :agora WHERE r.id = :id AND r.usadoEm IS NULL AND r.revogado = false")
+    int marcaUsado(@Param("id") Long id, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revogado = true WHERE r.familia = :familia AND r.revogado = false")
+    int revogaFamilia(@Param("familia") String familia);
+
+    // Usa o índice em expira_em; tokens usados ficam até expirar para a detecção de reuso
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiraEm < :limite")
+    int removeExpirados(@Param("limite") LocalDateTime limite);
+}
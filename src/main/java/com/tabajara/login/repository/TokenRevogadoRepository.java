@@ -0,0 +1,28 @@
+package com.tabajara.login.repository;
+
+import com.tabajara.login.model.TokenRevogado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevogadoRepository extends JpaRepository<TokenRevogado, String> {
+
+    @Query("SELECT t FROM TokenRevogado t WHERE t.expiraEm > :agora")
+    List<TokenRevogado> findVigentes(@Param("agora") LocalDateTime agora);
+
+    // Revogações feitas por outras instâncias desde a última sincronização
+    @Query("SELECT t FROM TokenRevogado t WHERE t.revogadoEm >= :desde AND t.expiraEm > :agora")
+    List<TokenRevogado> findRevogadosDesde(@Param("desde") LocalDateTime desde, @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TokenRevogado t WHERE t.expiraEm < :agora")
+    int removeExpirados(@Param("agora") LocalDateTime agora);
+}
@@ -6,8 +6,10 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -27,6 +29,20 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     // Renomeado para seguir a convenção do Spring Data JPA
     boolean existsByEmail(String email);
 
+    // Bloqueios automáticos vencidos; bloqueios sem prazo (bloqueadoAte nulo) não entram
+    List<Usuario> findByContaNaoBloqueadaFalseAndBloqueadoAteLessThanEqual(LocalDateTime agora);
+
+    @Query("SELECT u.versaoSeguranca FROM Usuario u WHERE u.id = :userId AND u.ativo = true AND u.contaNaoBloqueada = true")
+    Optional<Integer> findVersaoSegurancaAtiva(@Param("userId") Long userId);
+
+    // Só grava se ninguém trocou a senha desde a leitura; não altera a versão de segurança
+    @Transactional
+    @Modifying
+    @Query("UPDATE Usuario u SET u.password = :novoHash WHERE u.id = :userId AND u.password = :hashAtual")
+    int regravaHashSenha(@Param("userId") Long userId,
+                         @Param("hashAtual") String hashAtual,
+                         @Param("novoHash") String novoHash);
+
     @Modifying
     @Query("UPDATE Usuario u SET u.ultimoLogin = :ultimoLogin WHERE u.id = :userId")
     void updateLastLogin(@Param("userId") Long userId, @Param("ultimoLogin") LocalDateTime ultimoLogin);
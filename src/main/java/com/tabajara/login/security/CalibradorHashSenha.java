@@ -0,0 +1,124 @@
+package com.tabajara.login.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cria o encoder de senhas com custo calibrado na inicialização para a
+ * latência alvo {@code password.target-latency-ms} nesta máquina.
+ *
+ * O resultado é um {@link DelegatingPasswordEncoder}: novos hashes levam o
+ * prefixo do algoritmo ({@code {bcrypt}} ou {@code {argon2}}) e hashes antigos
+ * sem prefixo ({@code $2a$10$...}) continuam sendo aceitos como BCrypt. Um hash
+ * com algoritmo ou custo diferentes do atual é reportado por
+ * {@code upgradeEncoding}, e o login o regrava em segundo plano.
+ */
+@Component
+public class CalibradorHashSenha {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalibradorHashSenha.class);
+
+    private static final String BCRYPT = "bcrypt";
+    private static final String ARGON2 = "argon2";
+    private static final String SENHA_CALIBRACAO = "calibracao-Senha-123";
+
+    @Value("${password.algorithm:bcrypt}")
+    private String algoritmo;
+
+    @Value("${password.target-latency-ms:100}")
+    private long latenciaAlvoMs;
+
+    @Value("${password.bcrypt.min-strength:10}")
+    private int bcryptCustoMinimo;
+
+    @Value("${password.bcrypt.max-strength:16}")
+    private int bcryptCustoMaximo;
+
+    @Value("${password.argon2.memory-kib:19456}")
+    private int argon2MemoriaKib;
+
+    @Value("${password.argon2.parallelism:1}")
+    private int argon2Paralelismo;
+
+    @Value("${password.argon2.max-iterations:10}")
+    private int argon2IteracoesMaximas;
+
+    public PasswordEncoder cria() {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        switch (algoritmo) {
+            case BCRYPT -> encoders.put(BCRYPT, calibraBcrypt());
+            case ARGON2 -> {
+                if (!ClassUtils.isPresent("org.bouncycastle.crypto.params.Argon2Parameters", null)) {
+                    throw new IllegalStateException(
+                            "password.algorithm=argon2 exige BouncyCastle no classpath (build com -Pargon2)");
+                }
+                encoders.put(ARGON2, calibraArgon2());
+                // Hashes BCrypt existentes continuam válidos até serem regravados
+                encoders.put(BCRYPT, new BCryptPasswordEncoder());
+            }
+            default -> throw new IllegalStateException("password.algorithm não suportado: " + algoritmo);
+        }
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algoritmo, encoders);
+        // Hashes gravados antes da adoção dos prefixos
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    private PasswordEncoder calibraBcrypt() {
+        // O custo do BCrypt é exponencial: cada unidade dobra o tempo
+        long tempoMinimo = mede(new BCryptPasswordEncoder(bcryptCustoMinimo));
+        int custo = bcryptCustoMinimo;
+        long estimado = tempoMinimo;
+        while (custo < bcryptCustoMaximo && estimado * 2 <= latenciaAlvoMs) {
+            custo++;
+            estimado *= 2;
+        }
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(custo);
+        logger.info("BCrypt calibrado: custo {} (~{} ms por hash, alvo {} ms)", custo, mede(encoder), latenciaAlvoMs);
+        return encoder;
+    }
+
+    private PasswordEncoder calibraArgon2() {
+        // Memória e paralelismo são fixos por configuração; só as iterações são ajustadas
+        int iteracoes = 1;
+        Argon2PasswordEncoder encoder = argon2(iteracoes);
+        long tempo = mede(encoder);
+        while (iteracoes < argon2IteracoesMaximas && tempo * (iteracoes + 1) / iteracoes <= latenciaAlvoMs) {
+            iteracoes++;
+            encoder = argon2(iteracoes);
+            tempo = mede(encoder);
+        }
+        logger.info("Argon2 calibrado: {} KiB, paralelismo {}, {} iteração(ões) (~{} ms por hash, alvo {} ms)",
+                argon2MemoriaKib, argon2Paralelismo, iteracoes, tempo, latenciaAlvoMs);
+        return encoder;
+    }
+
+    private Argon2PasswordEncoder argon2(int iteracoes) {
+        return new Argon2PasswordEncoder(16, 32, argon2Paralelismo, argon2MemoriaKib, iteracoes);
+    }
+
+    // Mediana de três execuções, após uma de aquecimento
+    private static long mede(PasswordEncoder encoder) {
+        encoder.encode(SENHA_CALIBRACAO);
+        long[] tempos = new long[3];
+        for (int i = 0; i < tempos.length; i++) {
+            long inicio = System.nanoTime();
+            encoder.encode(SENHA_CALIBRACAO);
+            tempos[i] = (System.nanoTime() - inicio) / 1_000_000;
+        }
+        Arrays.sort(tempos);
+        return Math.max(1, tempos[1]);
+    }
+}
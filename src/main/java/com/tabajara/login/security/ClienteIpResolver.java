@@ -0,0 +1,84 @@
+package com.tabajara.login.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Resolve o IP do cliente considerando os headers que o nginx define
+ * ({@code X-Real-IP} e {@code X-Forwarded-For}).
+ *
+ * Os headers só valem quando a conexão vem de um proxy listado em
+ * {@code auth.trusted-proxies} (IPs ou CIDRs); sem proxies configurados,
+ * vale sempre o endereço da conexão. Do {@code X-Forwarded-For} é usado o
+ * endereço mais à direita que não seja de um proxy confiável, já que os
+ * anteriores vêm do próprio cliente.
+ */
+@Component
+public class ClienteIpResolver {
+
+    private static final Pattern IP_LITERAL = Pattern.compile("[0-9A-Fa-f:.]{2,45}");
+
+    private final List<IpAddressMatcher> proxiesConfiaveis;
+
+    @Autowired
+    public ClienteIpResolver(@Value("${auth.trusted-proxies:}") String[] proxies) {
+        this.proxiesConfiaveis = Arrays.stream(proxies)
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    /**
+     * IP da requisição em andamento na thread atual, ou {@code null} fora de uma requisição.
+     */
+    public String resolveAtual() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos
+                ? resolve(atributos.getRequest()) : null;
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remoto = request.getRemoteAddr();
+        if (!confiavel(remoto)) {
+            return remoto;
+        }
+        String realIp = request.getHeader("X-Real-IP");
+        if (StringUtils.hasText(realIp)) {
+            return realIp.trim();
+        }
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (StringUtils.hasText(forwardedFor)) {
+            String[] enderecos = forwardedFor.split(",");
+            for (int i = enderecos.length - 1; i >= 0; i--) {
+                String endereco = enderecos[i].trim();
+                if (!endereco.isEmpty() && !confiavel(endereco)) {
+                    return endereco;
+                }
+            }
+        }
+        return remoto;
+    }
+
+    private boolean confiavel(String endereco) {
+        // O matcher resolveria nomes via DNS; valores de header que não são IPs nunca são proxies
+        if (proxiesConfiaveis.isEmpty() || !IP_LITERAL.matcher(endereco).matches()) {
+            return false;
+        }
+        for (IpAddressMatcher proxy : proxiesConfiaveis) {
+            if (proxy.matches(endereco)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
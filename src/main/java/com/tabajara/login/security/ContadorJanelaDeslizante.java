@@ -0,0 +1,154 @@
+package com.tabajara.login.security;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contadores de eventos por chave numa janela deslizante, sem lock.
+ *
+ * A janela é dividida em {@code baldes} intervalos de {@code baldeMs}; cada
+ * chave guarda um contador e a época (instante / baldeMs) de cada balde em
+ * arrays atômicos. Incrementar é um CAS no balde corrente, e o total soma os
+ * baldes ainda dentro da janela. Baldes reaproveitados sob disputa podem
+ * perder um incremento, o que é aceitável para limitação de tentativas.
+ *
+ * O número de chaves é limitado: com o mapa cheio, chaves inativas são
+ * descartadas e, se ainda não houver espaço, chaves novas não são contadas.
+ */
+public class ContadorJanelaDeslizante {
+
+    private final long baldeMs;
+    private final int baldes;
+    private final int maximoChaves;
+    private final ConcurrentHashMap<String, Janela> janelas = new ConcurrentHashMap<>();
+
+    public ContadorJanelaDeslizante(long janelaMs, int baldes, int maximoChaves) {
+        if (baldes <= 0 || janelaMs < baldes) {
+            throw new IllegalArgumentException("Janela inválida: " + janelaMs + " ms em " + baldes + " baldes");
+        }
+        this.baldeMs = janelaMs / baldes;
+        this.baldes = baldes;
+        this.maximoChaves = maximoChaves;
+    }
+
+    /**
+     * Conta um evento para a chave.
+     *
+     * @return total da chave na janela, já incluindo este evento
+     */
+    public long registra(String chave, long agoraMs) {
+        Janela janela = janelas.get(chave);
+        if (janela == null) {
+            if (janelas.size() >= maximoChaves) {
+                limpaInativas(agoraMs);
+                if (janelas.size() >= maximoChaves) {
+                    return 0;
+                }
+            }
+            janela = janelas.computeIfAbsent(chave, c -> new Janela(baldes));
+        }
+        long epoca = agoraMs / baldeMs;
+        janela.incrementa(epoca);
+        return janela.total(epoca);
+    }
+
+    public long total(String chave, long agoraMs) {
+        Janela janela = janelas.get(chave);
+        return janela == null ? 0 : janela.total(agoraMs / baldeMs);
+    }
+
+    /**
+     * Tempo até o total da chave ficar abaixo de {@code limite}, à medida que os
+     * baldes mais antigos saem da janela; 0 se já estiver abaixo.
+     */
+    public long msAteFicarAbaixo(String chave, long limite, long agoraMs) {
+        Janela janela = janelas.get(chave);
+        if (janela == null) {
+            return 0;
+        }
+        long epocaAtual = agoraMs / baldeMs;
+        long[][] validos = janela.baldesValidos(epocaAtual);
+        long total = 0;
+        for (long[] balde : validos) {
+            total += balde[1];
+        }
+        for (long[] balde : validos) {
+            if (total < limite) {
+                break;
+            }
+            total -= balde[1];
+            if (total < limite) {
+                return Math.max(0, (balde[0] + baldes) * baldeMs - agoraMs);
+            }
+        }
+        return 0;
+    }
+
+    public void limpa(String chave) {
+        janelas.remove(chave);
+    }
+
+    public void limpaInativas(long agoraMs) {
+        long epocaAtual = agoraMs / baldeMs;
+        janelas.values().removeIf(janela -> epocaAtual - janela.ultimaEpoca >= baldes);
+    }
+
+    public int tamanho() {
+        return janelas.size();
+    }
+
+    private static final class Janela {
+
+        private final AtomicLongArray contagens;
+        private final AtomicLongArray epocas;
+        private volatile long ultimaEpoca;
+
+        Janela(int baldes) {
+            this.contagens = new AtomicLongArray(baldes);
+            this.epocas = new AtomicLongArray(baldes);
+        }
+
+        void incrementa(long epoca) {
+            int indice = (int) (epoca % contagens.length());
+            while (true) {
+                long atual = epocas.get(indice);
+                if (atual >= epoca) {
+                    contagens.incrementAndGet(indice);
+                    break;
+                }
+                // Balde de uma volta anterior da janela: quem vencer o CAS o reinicia
+                if (epocas.compareAndSet(indice, atual, epoca)) {
+                    contagens.set(indice, 1);
+                    break;
+                }
+            }
+            ultimaEpoca = epoca;
+        }
+
+        long total(long epocaAtual) {
+            long total = 0;
+            for (int i = 0; i < contagens.length(); i++) {
+                if (epocaAtual - epocas.get(i) < contagens.length()) {
+                    total += contagens.get(i);
+                }
+            }
+            return total;
+        }
+
+        // Pares {época, contagem} dentro da janela, do mais antigo para o mais novo
+        long[][] baldesValidos(long epocaAtual) {
+            long[][] validos = new long[contagens.length()][];
+            int n = 0;
+            for (int i = 0; i < contagens.length(); i++) {
+                long epoca = epocas.get(i);
+                if (epocaAtual - epoca < contagens.length()) {
+                    validos[n++] = new long[]{epoca, contagens.get(i)};
+                }
+            }
+            validos = Arrays.copyOf(validos, n);
+            Arrays.sort(validos, (a, b) -> Long.compare(a[0], b[0]));
+            return validos;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.tabajara.login.security;
+
+import com.tabajara.login.exception.ServicoSobrecarregadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool dedicado ao hash de senhas, dimensionado pelos núcleos da máquina e
+ * com fila limitada.
+ *
+ * O BCrypt custa dezenas de milissegundos de CPU por chamada. Sem este pool,
+ * uma rajada de logins ocuparia todas as threads do Tomcat. Com ele, no máximo
+ * {@code threads + queue-capacity} requisições aguardam hash ao mesmo tempo. As
+ * demais recebem {@link ServicoSobrecarregadoException} na hora, e as rotas
+ * autenticadas por token continuam com threads livres.
+ */
+@Component
+public class HashSenhaExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long esperaMaximaMs;
+    private final long retryAfterSegundos;
+
+    private final Timer tempoHash;
+    private final Timer tempoFila;
+    private final Counter rejeicoes;
+
+    @Autowired
+    public HashSenhaExecutor(MeterRegistry meterRegistry,
+                             @Value("${password.hashing.threads:0}") int threads,
+                             @Value("${password.hashing.queue-capacity:64}") int capacidadeFila,
+                             @Value("${password.hashing.max-wait-ms:5000}") long esperaMaximaMs,
+                             @Value("${password.hashing.retry-after-seconds:1}") long retryAfterSegundos) {
+        int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequencia = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(tamanho, tamanho, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + sequencia.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.retryAfterSegundos = retryAfterSegundos;
+
+        this.tempoHash = Timer.builder("password.hash.duration")
+                .description("Tempo de CPU gasto em cada hash ou verificação de senha")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.tempoFila = Timer.builder("password.hash.queue.wait")
+                .description("Tempo entre a submissão e o início do hash")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejeicoes = Counter.builder("password.hash.rejected")
+                .description("Requisições recusadas com a fila de hash cheia")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.queue.size", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a tarefa no pool e aguarda o resultado.
+     *
+     * @throws ServicoSobrecarregadoException se a fila estiver cheia ou a espera exceder o limite
+     */
+    public <T> T executa(Supplier<T> tarefa) {
+        long submetidoEm = System.nanoTime();
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(() -> {
+                tempoFila.record(System.nanoTime() - submetidoEm, TimeUnit.NANOSECONDS);
+                return tempoHash.record(tarefa);
+            });
+        } catch (RejectedExecutionException e) {
+            rejeicoes.increment();
+            throw sobrecarregado();
+        }
+
+        try {
+            return futuro.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            rejeicoes.increment();
+            throw sobrecarregado();
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando hash de senha", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Submete uma tarefa sem aguardar, descartando-a se não houver espaço na fila.
+     *
+     * @return {@code true} se a tarefa foi aceita
+     */
+    public boolean tentaSubmeter(Runnable tarefa) {
+        try {
+            executor.execute(() -> tempoHash.record(tarefa));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void encerra() {
+        executor.shutdown();
+    }
+
+    private ServicoSobrecarregadoException sobrecarregado() {
+        return new ServicoSobrecarregadoException(
+                "Serviço de autenticação sobrecarregado, tente novamente", retryAfterSegundos);
+    }
+}
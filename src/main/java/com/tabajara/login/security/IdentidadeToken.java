@@ -0,0 +1,18 @@
+package com.tabajara.login.security;
+
+import com.tabajara.login.model.Role;
+
+/**
+ * Dados do usuário gravados como claims no access token, para que a
+ * verificação não precise consultar o banco. Mantido fora de
+ * {@code UsuarioSnapshot} para que o {@link JwtTokenProvider} não dependa das
+ * entidades JPA e possa ser reaproveitado pelo build reativo.
+ */
+public interface IdentidadeToken {
+
+    Long getId();
+
+    Role getRole();
+
+    int getVersaoSeguranca();
+}
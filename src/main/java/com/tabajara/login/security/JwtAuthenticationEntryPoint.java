@@ -1,19 +1,21 @@
 package com.tabajara.login.security;
 
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tabajara.login.auditoria.AcaoAuditoria;
+import com.tabajara.login.auditoria.AuditoriaService;
+import com.tabajara.login.exception.ErroRespostaWriter;
+import com.tabajara.login.exception.LogAmostrado;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.MediaType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 import org.slf4j.Logger;
 
 @Component
@@ -21,24 +23,35 @@ public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint{
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationEntryPoint.class);
 
+    private static final ErroRespostaWriter.Modelo NAO_AUTORIZADO =
+            ErroRespostaWriter.modelo(HttpStatus.UNAUTHORIZED, "Unauthorized");
+
+    private final AuditoriaService auditoriaService;
+    private final LogAmostrado logAmostrado;
+
+    @Autowired
+    public JwtAuthenticationEntryPoint(AuditoriaService auditoriaService, LogAmostrado logAmostrado) {
+        this.auditoriaService = auditoriaService;
+        this.logAmostrado = logAmostrado;
+    }
+
     @Override
     public void commence(HttpServletRequest request,
                          HttpServletResponse response,
                          AuthenticationException authException) throws IOException, ServletException {
 
-        logger.error("Unauthorized error: {}", authException.getMessage());
-
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
-        body.put("error", "Unauthorized");
-        body.put("message", authException.getMessage());
-        body.put("path", request.getServletPath());
-        body.put("timestamp", System.currentTimeMillis());
-
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.writeValue(response.getOutputStream(), body);
+        // Um 401 é rotina (token ausente ou expirado); em rajada, uma linha por janela
+        long suprimidos = logAmostrado.registra(authException.getClass());
+        if (suprimidos != LogAmostrado.SUPRIMIDO) {
+            logger.info("Unauthorized: {} ({} semelhantes suprimidos)", authException.getMessage(), suprimidos);
+        }
+        auditoriaService.registra(AcaoAuditoria.NAO_AUTORIZADO, null,
+                request.getMethod() + " " + request.getServletPath(), request);
+
+        ErroRespostaWriter.corpo(NAO_AUTORIZADO)
+                .texto(ErroRespostaWriter.MESSAGE, authException.getMessage())
+                .texto(ErroRespostaWriter.PATH, request.getServletPath())
+                .timestampEpoch()
+                .escreve(response);
     }
 }
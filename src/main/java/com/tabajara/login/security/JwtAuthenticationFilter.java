@@ -1,12 +1,19 @@
 package com.tabajara.login.security;
 
 
+import com.tabajara.login.diagnostico.DiagnosticoDirecionado;
 import com.tabajara.login.service.UsuarioDetalheService;
+import com.tabajara.login.service.VersaoSegurancaService;
+import io.jsonwebtoken.JwtException;
 import io.micrometer.common.lang.NonNull;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,38 +24,95 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Autowired
-    private JwtTokenProvider tokenProvider;
+    private JwtTokenCache tokenCache;
 
     @Autowired
     private UsuarioDetalheService usuarioDetalheService;
 
+    @Autowired
+    private VersaoSegurancaService versaoSegurancaService;
+
+    @Autowired
+    private ListaRevogacao listaRevogacao;
+
+    private Timer tempoFiltro;
+    private Counter revogados;
+    private Counter versaoObsoleta;
+
+    @Autowired
+    void registraMetricas(MeterRegistry meterRegistry) {
+        this.tempoFiltro = MetricasAutenticacao.estagio(meterRegistry, MetricasAutenticacao.FILTRO);
+        this.revogados = MetricasAutenticacao.tokenRejeitado(meterRegistry, "revoked");
+        this.versaoObsoleta = MetricasAutenticacao.tokenRejeitado(meterRegistry, "stale_version");
+    }
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
-        try {
-            String jwt = getJwtFromRequest(request);
+        String jwt = getJwtFromRequest(request);
+        // Só o trabalho de autenticação, sem o restante da cadeia; requisições sem token não entram
+        if (StringUtils.hasText(jwt)) {
+            long inicio = System.nanoTime();
+            try {
+                UsernamePasswordAuthenticationToken authentication = autentica(tokenCache.verifica(jwt));
+                if (authentication != null) {
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    registraNoMdc(authentication.getPrincipal());
+                }
+            } catch (JwtException ex) {
+                logger.debug("Token JWT rejeitado: " + ex.getMessage());
+            } catch (Exception ex) {
+                logger.error("Não foi possível definir autenticação do usuário no security context", ex);
+            } finally {
+                tempoFiltro.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        }
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validaToken(jwt)) {
-                String username = tokenProvider.getUsernameToken(jwt);
+        filterChain.doFilter(request, response);
+    }
 
-                UserDetails userDetails = usuarioDetalheService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+    private UsernamePasswordAuthenticationToken autentica(TokenVerificado token) {
+        // Também vale para tokens vindos do cache: a revogação pode ser posterior à verificação
+        if (listaRevogacao.revogado(token.jti())) {
+            revogados.increment();
+            logger.debug("Token JWT revogado para " + token.username());
+            return null;
+        }
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
-        } catch (Exception ex) {
-            logger.error("Não foi possível definir autenticação do usuário no security context", ex);
+        if (!token.autocontido()) {
+            // Token emitido antes das claims de usuário: mantém o caminho antigo até expirar
+            UserDetails userDetails = usuarioDetalheService.loadUserByUsername(token.username());
+            return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
         }
 
-        filterChain.doFilter(request, response);
+        if (versaoSegurancaService.versaoAtual(token.userId()) != token.versao()) {
+            versaoObsoleta.increment();
+            logger.debug("Token JWT com versão de segurança obsoleta para " + token.username());
+            return null;
+        }
+
+        UsuarioAutenticado principal = new UsuarioAutenticado(token.userId(), token.username(), token.role());
+        return new UsernamePasswordAuthenticationToken(principal, null, token.role().getAuthorities());
+    }
+
+    /**
+     * Identifica o usuário nos logs do restante da requisição; o {@code DiagnosticoMdcFilter} limpa ao final.
+     */
+    private void registraNoMdc(Object principal) {
+        if (principal instanceof UsuarioAutenticado usuario) {
+            MDC.put(DiagnosticoDirecionado.MDC_USER_ID, String.valueOf(usuario.id()));
+            MDC.put(DiagnosticoDirecionado.MDC_USERNAME, usuario.username());
+        } else if (principal instanceof UserDetails userDetails) {
+            MDC.put(DiagnosticoDirecionado.MDC_USERNAME, userDetails.getUsername());
+        }
     }
 
     private String getJwtFromRequest(HttpServletRequest request) {
@@ -0,0 +1,230 @@
+package com.tabajara.login.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Conjunto de chaves aceitas para verificar tokens, identificadas pelo header {@code kid}.
+ *
+ * Apenas a chave ativa assina novos tokens; as demais continuam verificando os
+ * tokens já emitidos até serem removidas. Isso permite rotacionar o segredo
+ * sem invalidar todas as sessões de uma vez: adiciona-se a chave nova, ela é
+ * ativada e a antiga é removida depois que seus tokens expirarem.
+ *
+ * Além de segredos HMAC (HS256), aceita pares ES256 em {@code jwt.ec-keys}.
+ * Tokens ES256 podem ser verificados por outros serviços apenas com a chave
+ * pública publicada em {@code /.well-known/jwks.json}, sem compartilhar segredo.
+ *
+ * O estado é um mapa imutável trocado atomicamente, então leituras no
+ * caminho de verificação não usam lock.
+ */
+@Component
+public class JwtKeyring {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyring.class);
+
+    /** Kid assumido para tokens emitidos antes da introdução do header. */
+    public static final String KID_PADRAO = "default";
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final Environment environment;
+
+    @Value("${jwt.secret:minha-chave-secreta-super-segura-deve-ter-pelo-menos-256-bits}")
+    private String jwtSecret;
+
+    @Value("${jwt.active-kid:" + KID_PADRAO + "}")
+    private String kidAtivoConfigurado;
+
+    @Value("${jwt.generate-ec-key:false}")
+    private boolean geraChaveEc;
+
+    private volatile Estado estado;
+
+    @Autowired
+    public JwtKeyring(ApplicationEventPublisher eventPublisher, Environment environment) {
+        this.eventPublisher = eventPublisher;
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    void inicializa() {
+        Map<String, ChaveJwt> chaves = new LinkedHashMap<>();
+        chaves.put(KID_PADRAO, hmac(KID_PADRAO, jwtSecret));
+
+        Map<String, String> adicionais = Binder.get(environment)
+                .bind("jwt.keys", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        adicionais.forEach((kid, segredo) -> chaves.put(kid, hmac(kid, segredo)));
+
+        Map<String, ParChavesEc> chavesEc = Binder.get(environment)
+                .bind("jwt.ec-keys", Bindable.mapOf(String.class, ParChavesEc.class))
+                .orElse(Map.of());
+        chavesEc.forEach((kid, par) -> chaves.put(kid, ec(kid, par)));
+
+        String kidAtivo = kidAtivoConfigurado;
+        if (geraChaveEc) {
+            ChaveJwt gerada = geraEs256("ec-" + System.currentTimeMillis());
+            chaves.put(gerada.kid(), gerada);
+            kidAtivo = gerada.kid();
+            logger.warn("Par ES256 efêmero gerado ({}); tokens deixam de valer ao reiniciar e não são "
+                    + "aceitos por outras réplicas", gerada.kid());
+        }
+
+        ChaveJwt ativa = chaves.get(kidAtivo);
+        if (ativa == null) {
+            throw new IllegalStateException("jwt.active-kid não corresponde a nenhuma chave: " + kidAtivo);
+        }
+        if (ativa.assinatura() == null) {
+            throw new IllegalStateException("A chave ativa não tem chave privada: " + kidAtivo);
+        }
+        this.estado = new Estado(Collections.unmodifiableMap(chaves), kidAtivo);
+        logger.info("Keyring JWT carregado com {} chave(s), ativa: {}", chaves.size(), kidAtivo);
+    }
+
+    public ChaveJwt ativa() {
+        Estado atual = estado;
+        return atual.chaves().get(atual.kidAtivo());
+    }
+
+    /**
+     * @param kid kid do header do token, ou {@code null} para tokens sem header
+     * @return a chave correspondente ou {@code null} se não houver
+     */
+    public ChaveJwt busca(String kid) {
+        return estado.chaves().get(kid != null ? kid : KID_PADRAO);
+    }
+
+    public Map<String, ChaveJwt> chaves() {
+        return estado.chaves();
+    }
+
+    public String kidAtivo() {
+        return estado.kidAtivo();
+    }
+
+    public synchronized void adiciona(ChaveJwt chave, boolean ativar) {
+        Map<String, ChaveJwt> chaves = new LinkedHashMap<>(estado.chaves());
+        chaves.put(chave.kid(), chave);
+        String kidAtivo = ativar ? chave.kid() : estado.kidAtivo();
+        troca(new Estado(Collections.unmodifiableMap(chaves), kidAtivo));
+        logger.info("Chave JWT '{}' adicionada{}", chave.kid(), ativar ? " e ativada" : "");
+    }
+
+    public synchronized void adicionaHmac(String kid, String segredo, boolean ativar) {
+        adiciona(hmac(kid, segredo), ativar);
+    }
+
+    public synchronized void adicionaEs256(String kid, boolean ativar) {
+        adiciona(geraEs256(kid), ativar);
+    }
+
+    public synchronized void ativa(String kid) {
+        ChaveJwt chave = estado.chaves().get(kid);
+        if (chave == null) {
+            throw new IllegalArgumentException("Chave JWT inexistente: " + kid);
+        }
+        if (chave.assinatura() == null) {
+            throw new IllegalArgumentException("Chave JWT sem chave privada não pode assinar: " + kid);
+        }
+        troca(new Estado(estado.chaves(), kid));
+        logger.info("Chave JWT '{}' ativada", kid);
+    }
+
+    public synchronized void remove(String kid) {
+        if (kid.equals(estado.kidAtivo())) {
+            throw new IllegalArgumentException("A chave ativa não pode ser removida: " + kid);
+        }
+        Map<String, ChaveJwt> chaves = new LinkedHashMap<>(estado.chaves());
+        if (chaves.remove(kid) != null) {
+            troca(new Estado(Collections.unmodifiableMap(chaves), estado.kidAtivo()));
+            logger.info("Chave JWT '{}' removida", kid);
+        }
+    }
+
+    private void troca(Estado novo) {
+        this.estado = novo;
+        eventPublisher.publishEvent(new KeyringAlteradoEvent(this));
+    }
+
+    private static ChaveJwt hmac(String kid, String segredo) {
+        Key chave = Keys.hmacShaKeyFor(segredo.getBytes(StandardCharsets.UTF_8));
+        return new ChaveJwt(kid, SignatureAlgorithm.HS256, chave, chave);
+    }
+
+    private static ChaveJwt ec(String kid, ParChavesEc par) {
+        try {
+            KeyFactory fabrica = KeyFactory.getInstance("EC");
+            PublicKey publica = fabrica.generatePublic(new X509EncodedKeySpec(decodificaPem(par.publicKey())));
+            PrivateKey privada = par.privateKey() == null ? null
+                    : fabrica.generatePrivate(new PKCS8EncodedKeySpec(decodificaPem(par.privateKey())));
+            return new ChaveJwt(kid, SignatureAlgorithm.ES256, privada, publica);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Chave EC inválida em jwt.ec-keys." + kid, e);
+        }
+    }
+
+    private static ChaveJwt geraEs256(String kid) {
+        KeyPair par = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        return new ChaveJwt(kid, SignatureAlgorithm.ES256, par.getPrivate(), par.getPublic());
+    }
+
+    private static byte[] decodificaPem(String pem) {
+        String base64 = pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    /**
+     * Par de chaves EC em PEM (ou Base64 DER): PKCS#8 para a privada e X.509 para a pública.
+     * Sem a privada, a chave só verifica tokens.
+     */
+    public record ParChavesEc(String privateKey, String publicKey) {
+    }
+
+    private record Estado(Map<String, ChaveJwt> chaves, String kidAtivo) {
+    }
+
+    /**
+     * Chave do keyring. Em algoritmos HMAC a chave de assinatura e a de verificação são a mesma;
+     * em ES256 {@code assinatura} é {@code null} quando só a chave pública é conhecida.
+     */
+    public record ChaveJwt(String kid, SignatureAlgorithm algoritmo, Key assinatura, Key verificacao) {
+
+        public boolean assimetrica() {
+            return algoritmo.isEllipticCurve() || algoritmo.isRsa();
+        }
+    }
+
+    /**
+     * Publicado sempre que o conjunto de chaves ou a chave ativa muda.
+     */
+    public static class KeyringAlteradoEvent extends org.springframework.context.ApplicationEvent {
+
+        public KeyringAlteradoEvent(JwtKeyring source) {
+            super(source);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.tabajara.login.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoint do Actuator para rotacionar chaves JWT sem reiniciar a aplicação.
+ *
+ * <ul>
+ *   <li>{@code GET /actuator/jwtkeys}: lista os kids e a chave ativa (nunca o segredo)</li>
+ *   <li>{@code POST /actuator/jwtkeys} com {@code kid}, {@code secret} e {@code ativar}: adiciona uma chave HMAC;
+ *       com {@code alg=ES256} no lugar de {@code secret}, gera um par ES256;
+ *       sem nenhum dos dois, apenas ativa um kid existente</li>
+ *   <li>{@code DELETE /actuator/jwtkeys/{kid}}: remove uma chave inativa</li>
+ * </ul>
+ *
+ * O estado é local à instância: em um cluster a mesma operação deve ser
+ * aplicada a todas as réplicas.
+ */
+@Component
+@Endpoint(id = "jwtkeys")
+public class JwtKeyringEndpoint {
+
+    private final JwtKeyring keyring;
+
+    @Autowired
+    public JwtKeyringEndpoint(JwtKeyring keyring) {
+        this.keyring = keyring;
+    }
+
+    @ReadOperation
+    public Map<String, Object> chaves() {
+        List<Map<String, String>> chaves = keyring.chaves().values().stream()
+                .map(c -> Map.of("kid", c.kid(), "alg", c.algoritmo().getValue()))
+                .toList();
+        return Map.of("ativa", keyring.kidAtivo(), "chaves", chaves);
+    }
+
+    @WriteOperation
+    public Map<String, Object> adiciona(String kid, @Nullable String secret,
+                                        @Nullable String alg, @Nullable Boolean ativar) {
+        boolean ativa = Boolean.TRUE.equals(ativar);
+        if (secret != null) {
+            keyring.adicionaHmac(kid, secret, ativa);
+        } else if ("ES256".equals(alg)) {
+            keyring.adicionaEs256(kid, ativa);
+        } else if (alg != null) {
+            throw new IllegalArgumentException("Algoritmo não suportado: " + alg);
+        } else {
+            keyring.ativa(kid);
+        }
+        return chaves();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> remove(@Selector String kid) {
+        keyring.remove(kid);
+        return chaves();
+    }
+}
@@ -0,0 +1,77 @@
+package com.tabajara.login.security;
+
+import com.tabajara.login.cache.CacheExpiravel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Cache de tokens já verificados, indexado pelo SHA-256 do token.
+ *
+ * Um hit dispensa a verificação HMAC e o parse das claims. Cada entrada vale
+ * até o {@code exp} do próprio token, então o cache nunca aceita um token que
+ * o {@link JwtTokenProvider} rejeitaria por expiração.
+ */
+@Component
+public class JwtTokenCache {
+
+    private final JwtTokenProvider tokenProvider;
+    private final CacheExpiravel<String, TokenVerificado> cache;
+
+    @Autowired
+    public JwtTokenCache(JwtTokenProvider tokenProvider,
+                         MeterRegistry meterRegistry,
+                         @Value("${jwt.cache.max-size:10000}") int tamanhoMaximo) {
+        this.tokenProvider = tokenProvider;
+        this.cache = new CacheExpiravel<>("jwt.verified", tamanhoMaximo);
+        this.cache.registraMetricas(meterRegistry);
+    }
+
+    /**
+     * Devolve o token verificado, consultando o cache antes de verificar a assinatura.
+     *
+     * @throws io.jsonwebtoken.JwtException se o token não estiver no cache e for inválido
+     */
+    public TokenVerificado verifica(String token) {
+        String chave = digest(token);
+        TokenVerificado verificado = cache.get(chave);
+        if (verificado == null) {
+            verificado = tokenProvider.verificaToken(token);
+            cache.put(chave, verificado, verificado.expiraEmMs());
+        }
+        return verificado;
+    }
+
+    public void invalida(String token) {
+        cache.invalida(digest(token));
+    }
+
+    // Uma chave removida não pode continuar aceitando tokens pelo cache
+    @EventListener(JwtKeyring.KeyringAlteradoEvent.class)
+    public void aoAlterarKeyring() {
+        cache.invalidaTudo();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.cache.sweep-interval-ms:60000}")
+    public void limpaExpirados() {
+        cache.limpaExpirados();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
@@ -1,77 +1,164 @@
 package com.tabajara.login.security;
 
+import com.tabajara.login.model.Role;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.security.Key;
 import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret:minha-chave-secreta-super-segura-deve-ter-pelo-menos-256-bits}")
-    private String jwtSecret;
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
-    @Value("${jwt.expiration:86400000}")
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_VERSAO = "ver";
+
+    @Value("${jwt.expiration:900000}")
     private Long jwtExpiracaoMs;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    private final JwtKeyring keyring;
+
+    // Thread-safe; a chave é resolvida pelo kid a cada token, então a rotação não exige reconstruí-lo
+    private final JwtParser parser;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer tempoAssinatura;
+    private final Timer tempoVerificacao;
+    private final Map<String, Counter> rejeicoes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public JwtTokenProvider(JwtKeyring keyring, MeterRegistry meterRegistry) {
+        this.keyring = keyring;
+        this.meterRegistry = meterRegistry;
+        this.tempoAssinatura = MetricasAutenticacao.estagio(meterRegistry, MetricasAutenticacao.ASSINATURA_TOKEN);
+        this.tempoVerificacao = MetricasAutenticacao.estagio(meterRegistry, MetricasAutenticacao.VERIFICACAO_TOKEN);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        JwtKeyring.ChaveJwt chave = keyring.busca(header.getKeyId());
+                        if (chave == null) {
+                            throw new UnsupportedJwtException("Chave JWT desconhecida: " + header.getKeyId());
+                        }
+                        return chave.verificacao();
+                    }
+                })
+                .build();
+    }
+
+    private String assina(JwtBuilder builder) {
+        long inicio = System.nanoTime();
+        try {
+            JwtKeyring.ChaveJwt chave = keyring.ativa();
+            return builder
+                    .setHeaderParam(JwsHeader.KEY_ID, chave.kid())
+                    .signWith(chave.assinatura(), chave.algoritmo())
+                    .compact();
+        } finally {
+            tempoAssinatura.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Só verificações efetivas: hits do JwtTokenCache não passam por aqui
+    private Jws<Claims> verifica(String token) {
+        long inicio = System.nanoTime();
+        try {
+            Jws<Claims> jws = parser.parseClaimsJws(token);
+            // O parser só confere exp quando presente; todo token emitido aqui tem, e um sem exp valeria para sempre
+            if (jws.getBody().getExpiration() == null) {
+                throw new MalformedJwtException("Token JWT sem a claim exp");
+            }
+            return jws;
+        } catch (JwtException | IllegalArgumentException e) {
+            rejeicoes.computeIfAbsent(MetricasAutenticacao.motivo(e),
+                    motivo -> MetricasAutenticacao.tokenRejeitado(meterRegistry, motivo)).increment();
+            throw e;
+        } finally {
+            tempoVerificacao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
     }
 
     public String generateToken(Authentication authentication) {
-        UserDetails usuarioPrincipal = (UserDetails) authentication.getPrincipal();
+        return generateToken((UserDetails) authentication.getPrincipal());
+    }
+
+    public String generateToken(UserDetails usuarioPrincipal) {
         Date dataExpiracao = new Date(System.currentTimeMillis() + jwtExpiracaoMs);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(usuarioPrincipal.getUsername())
                 .setIssuedAt(new Date())
-                .setExpiration(dataExpiracao)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(dataExpiracao);
+
+        // Claims suficientes para o filtro autenticar sem consultar o banco
+        if (usuarioPrincipal instanceof IdentidadeToken usuario) {
+            builder.claim(CLAIM_USER_ID, usuario.getId())
+                    .claim(CLAIM_ROLE, usuario.getRole().name())
+                    .claim(CLAIM_VERSAO, usuario.getVersaoSeguranca());
+        }
+
+        return assina(builder);
     }
 
     public String generateToken(String username) {
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpiracaoMs);
 
-        return Jwts.builder()
+        return assina(Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(expiryDate));
     }
 
     public String getUsernameToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = verifica(token).getBody();
         return claims.getSubject();
     }
 
+    /**
+     * Verifica assinatura e expiração com um único parse.
+     *
+     * @throws JwtException se o token for inválido ou estiver expirado
+     */
+    public TokenVerificado verificaToken(String token) {
+        Claims claims = verifica(token).getBody();
+        String role = claims.get(CLAIM_ROLE, String.class);
+        return new TokenVerificado(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get(CLAIM_USER_ID, Long.class),
+                role != null ? Role.valueOf(role) : null,
+                claims.get(CLAIM_VERSAO, Integer.class),
+                claims.getExpiration().getTime()
+        );
+    }
+
     public boolean validaToken(String authToken) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
+            verifica(authToken);
             return true;
-        } catch (MalformedJwtException e) {
-            System.err.println("Token JWT inválido: " + e.getMessage());
-        } catch (ExpiredJwtException e) {
-            System.err.println("Token JWT expirado: " + e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            System.err.println("Token JWT não suportado: " + e.getMessage());
-        } catch (IllegalArgumentException e) {
-            System.err.println("JWT claims string está vazio: " + e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            // Contado em auth.token.rejected; o token pode vir de qualquer cliente, então só em debug
+            logger.debug("Token JWT rejeitado ({}): {}", MetricasAutenticacao.motivo(e), e.getMessage());
+            return false;
         }
-        return false;
     }
 
     public Long getTempoExpiracao() {
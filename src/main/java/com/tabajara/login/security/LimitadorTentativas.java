@@ -0,0 +1,185 @@
+package com.tabajara.login.security;
+
+import com.tabajara.login.exception.MuitasTentativasException;
+import com.tabajara.login.service.BloqueioContaService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita falhas de login por conta e por IP do cliente, em janela deslizante.
+ *
+ * {@link #verifica} roda antes de qualquer hash de senha: acima do limite a
+ * tentativa é recusada com 429 sem custo de CPU nem de banco. Tentativas
+ * recusadas contra uma conta continuam contando para ela e para o IP; ao
+ * atingir {@code auth.throttle.lock-after-failures}, a conta é bloqueada por
+ * {@code auth.throttle.lock-duration-seconds} ou até um administrador liberá-la.
+ * O limite de bloqueio deve ficar acima do limite por IP, para que um único
+ * cliente seja barrado antes de conseguir bloquear a conta de outra pessoa.
+ * O bloqueio vale a partir do limite, não só no valor exato: sob tentativas
+ * paralelas a contagem pode pular o número configurado.
+ *
+ * Os contadores ficam em memória, por instância.
+ */
+@Component
+public class LimitadorTentativas {
+
+    private static final Logger logger = LoggerFactory.getLogger(LimitadorTentativas.class);
+
+    private final ContadorJanelaDeslizante porConta;
+    private final ContadorJanelaDeslizante porIp;
+    private final BloqueioContaService bloqueioContaService;
+    // Conta normalizada -> fim do bloqueio já pedido, para não ir ao banco a cada tentativa recusada
+    private final ConcurrentHashMap<String, Long> bloqueiosPedidos = new ConcurrentHashMap<>();
+    private final Counter recusadasConta;
+    private final Counter recusadasIp;
+
+    @Value("${auth.throttle.enabled:true}")
+    private boolean habilitado;
+
+    @Value("${auth.throttle.username.max-failures:5}")
+    private long limiteConta;
+
+    @Value("${auth.throttle.ip.max-failures:50}")
+    private long limiteIp;
+
+    @Value("${auth.throttle.lock-after-failures:100}")
+    private long limiteBloqueio;
+
+    @Value("${auth.throttle.lock-duration-seconds:900}")
+    private long duracaoBloqueioSegundos;
+
+    @Autowired
+    public LimitadorTentativas(BloqueioContaService bloqueioContaService,
+                               MeterRegistry meterRegistry,
+                               @Value("${auth.throttle.window-seconds:900}") long janelaSegundos,
+                               @Value("${auth.throttle.buckets:15}") int baldes,
+                               @Value("${auth.throttle.max-keys:100000}") int maximoChaves) {
+        long janelaMs = TimeUnit.SECONDS.toMillis(janelaSegundos);
+        this.porConta = new ContadorJanelaDeslizante(janelaMs, baldes, maximoChaves);
+        this.porIp = new ContadorJanelaDeslizante(janelaMs, baldes, maximoChaves);
+        this.bloqueioContaService = bloqueioContaService;
+
+        this.recusadasConta = recusadas(meterRegistry, "username");
+        this.recusadasIp = recusadas(meterRegistry, "ip");
+        Gauge.builder("auth.throttle.keys", porConta, ContadorJanelaDeslizante::tamanho)
+                .tag("key", "username").register(meterRegistry);
+        Gauge.builder("auth.throttle.keys", porIp, ContadorJanelaDeslizante::tamanho)
+                .tag("key", "ip").register(meterRegistry);
+    }
+
+    private static Counter recusadas(MeterRegistry meterRegistry, String chave) {
+        return Counter.builder("auth.throttle.rejected")
+                .description("Tentativas de login recusadas antes da verificação de senha")
+                .tag("key", chave)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws MuitasTentativasException se a conta ou o IP estiverem acima do limite
+     */
+    public void verifica(String login, String ip) {
+        if (!habilitado) {
+            return;
+        }
+        long agora = System.currentTimeMillis();
+        if (ip != null && porIp.total(ip, agora) >= limiteIp) {
+            recusadasIp.increment();
+            throw new MuitasTentativasException("Muitas tentativas deste endereço. Tente novamente mais tarde.",
+                    segundos(porIp.msAteFicarAbaixo(ip, limiteIp, agora)));
+        }
+        String conta = normaliza(login);
+        if (porConta.total(conta, agora) >= limiteConta) {
+            recusadasConta.increment();
+            // Conta também para o IP: insistir numa conta já limitada esgota o limite do cliente
+            if (ip != null) {
+                porIp.registra(ip, agora);
+            }
+            long tentativas = porConta.registra(conta, agora);
+            if (limiteBloqueio > 0 && tentativas >= limiteBloqueio) {
+                bloqueia(login, conta, tentativas, agora);
+            }
+            throw new MuitasTentativasException("Muitas tentativas para esta conta. Tente novamente mais tarde.",
+                    segundos(porConta.msAteFicarAbaixo(conta, limiteConta, agora)));
+        }
+    }
+
+    private void bloqueia(String login, String conta, long tentativas, long agora) {
+        long ate = agora + TimeUnit.SECONDS.toMillis(duracaoBloqueioSegundos);
+        Long pedido = bloqueiosPedidos.get(conta);
+        if (pedido != null && pedido > agora) {
+            return;
+        }
+        // Só a thread que trocar a entrada pede o bloqueio; as demais já foram cobertas por ela
+        boolean venceu = pedido == null
+                ? bloqueiosPedidos.putIfAbsent(conta, ate) == null
+                : bloqueiosPedidos.replace(conta, pedido, ate);
+        if (venceu) {
+            logger.warn("Conta '{}' bloqueada por {} s após {} tentativas na janela",
+                    conta, duracaoBloqueioSegundos, tentativas);
+            try {
+                bloqueioContaService.bloqueia(login, Duration.ofSeconds(duracaoBloqueioSegundos));
+            } catch (RuntimeException e) {
+                // Falhou no banco: a próxima tentativa recusada pede de novo
+                bloqueiosPedidos.remove(conta, ate);
+                throw e;
+            }
+        }
+    }
+
+    public void registraFalha(String login, String ip) {
+        if (!habilitado) {
+            return;
+        }
+        long agora = System.currentTimeMillis();
+        porConta.registra(normaliza(login), agora);
+        if (ip != null) {
+            porIp.registra(ip, agora);
+        }
+    }
+
+    /**
+     * Login bem-sucedido zera as falhas da conta; as do IP continuam valendo.
+     */
+    public void registraSucesso(String login) {
+        if (habilitado) {
+            porConta.limpa(normaliza(login));
+        }
+    }
+
+    /**
+     * Zera as tentativas da conta, usado no desbloqueio administrativo.
+     */
+    public void libera(String login) {
+        String conta = normaliza(login);
+        porConta.limpa(conta);
+        bloqueiosPedidos.remove(conta);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.throttle.sweep-interval-ms:60000}")
+    public void limpaInativas() {
+        long agora = System.currentTimeMillis();
+        porConta.limpaInativas(agora);
+        porIp.limpaInativas(agora);
+        bloqueiosPedidos.values().removeIf(ate -> ate <= agora);
+    }
+
+    private static String normaliza(String login) {
+        return login == null ? "" : login.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long segundos(long ms) {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(ms + 999));
+    }
+}
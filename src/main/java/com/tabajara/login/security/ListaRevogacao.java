@@ -0,0 +1,141 @@
+package com.tabajara.login.security;
+
+import com.tabajara.login.cache.FiltroBloom;
+import com.tabajara.login.model.TokenRevogado;
+import com.tabajara.login.repository.TokenRevogadoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access tokens revogados (logout) ainda dentro da validade, por {@code jti}.
+ *
+ * A consulta no caminho de cada requisição passa primeiro por um
+ * {@link FiltroBloom}: para quase todos os tokens ele responde "não revogado"
+ * com alguns acessos a memória. Só um possível acerto consulta o mapa exato,
+ * que guarda o vencimento de cada token revogado. Entradas vencidas saem do
+ * mapa na varredura periódica, que também reconstrói o filtro, então a
+ * memória acompanha o número de tokens revogados ainda válidos.
+ *
+ * A tabela {@code tokens_revogados} é a fonte de verdade: é lida inteira na
+ * inicialização e consultada a cada {@code jwt.revocation.sync-interval-ms}
+ * para trazer as revogações feitas por outras instâncias.
+ */
+@Component
+public class ListaRevogacao {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListaRevogacao.class);
+
+    // Margem para linhas gravadas com revogado_em anterior à última sincronização mas confirmadas depois
+    private static final long MARGEM_SINCRONIZACAO_MS = 30_000;
+
+    private final TokenRevogadoRepository tokenRevogadoRepository;
+    private final ConcurrentHashMap<String, Long> revogados = new ConcurrentHashMap<>();
+    private final Object trava = new Object();
+
+    @Value("${jwt.revocation.expected-entries:100000}")
+    private long capacidadeMinima;
+
+    @Value("${jwt.revocation.false-positive-rate:0.001}")
+    private double taxaFalsoPositivo;
+
+    private volatile FiltroBloom filtro;
+    private volatile long ultimaSincronizacaoMs;
+
+    @Autowired
+    public ListaRevogacao(TokenRevogadoRepository tokenRevogadoRepository, MeterRegistry meterRegistry) {
+        this.tokenRevogadoRepository = tokenRevogadoRepository;
+        Gauge.builder("auth.revocation.entries", revogados, Map::size)
+                .description("Tokens revogados ainda dentro da validade")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void carrega() {
+        long agora = System.currentTimeMillis();
+        for (TokenRevogado token : tokenRevogadoRepository.findVigentes(paraLocal(agora))) {
+            revogados.put(token.getJti(), paraEpochMs(token.getExpiraEm()));
+        }
+        ultimaSincronizacaoMs = agora;
+        reconstroiFiltro();
+        logger.info("Lista de revogação carregada com {} token(s)", revogados.size());
+    }
+
+    public boolean revogado(String jti) {
+        if (jti == null || !filtro.talvezContenha(jti)) {
+            return false;
+        }
+        Long expiraEmMs = revogados.get(jti);
+        return expiraEmMs != null && expiraEmMs > System.currentTimeMillis();
+    }
+
+    /**
+     * Revoga o token até o seu vencimento, aqui e (na próxima sincronização) nas demais instâncias.
+     */
+    public void revoga(String jti, Long usuarioId, long expiraEmMs) {
+        if (expiraEmMs <= System.currentTimeMillis()) {
+            return;
+        }
+        tokenRevogadoRepository.save(new TokenRevogado(jti, usuarioId, paraLocal(expiraEmMs)));
+        adiciona(jti, expiraEmMs);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+    public void sincroniza() {
+        long agora = System.currentTimeMillis();
+        LocalDateTime desde = paraLocal(ultimaSincronizacaoMs - MARGEM_SINCRONIZACAO_MS);
+        for (TokenRevogado token : tokenRevogadoRepository.findRevogadosDesde(desde, paraLocal(agora))) {
+            if (!revogados.containsKey(token.getJti())) {
+                adiciona(token.getJti(), paraEpochMs(token.getExpiraEm()));
+            }
+        }
+        ultimaSincronizacaoMs = agora;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sweep-interval-ms:60000}")
+    public void limpaExpirados() {
+        long agora = System.currentTimeMillis();
+        boolean removidos = revogados.values().removeIf(expiraEmMs -> expiraEmMs <= agora);
+        // O filtro não remove entradas; é refeito só com as que continuam valendo,
+        // e também quando passou da capacidade para a qual foi dimensionado
+        if (removidos || revogados.size() > filtro.capacidade()) {
+            reconstroiFiltro();
+        }
+        tokenRevogadoRepository.removeExpirados(paraLocal(agora));
+    }
+
+    private void adiciona(String jti, long expiraEmMs) {
+        synchronized (trava) {
+            revogados.put(jti, expiraEmMs);
+            filtro.adiciona(jti);
+        }
+    }
+
+    private void reconstroiFiltro() {
+        synchronized (trava) {
+            FiltroBloom novo = new FiltroBloom(Math.max(capacidadeMinima, revogados.size() * 2L), taxaFalsoPositivo);
+            revogados.keySet().forEach(novo::adiciona);
+            filtro = novo;
+        }
+    }
+
+    private static LocalDateTime paraLocal(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault());
+    }
+
+    private static long paraEpochMs(LocalDateTime instante) {
+        return instante.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,68 @@
+package com.tabajara.login.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métricas por estágio da autenticação, compartilhadas entre os componentes
+ * que executam cada estágio.
+ *
+ * {@code auth.stage.duration} é um único timer com a tag {@code stage}, para
+ * que um login lento possa ser atribuído à senha, ao banco ou ao JWT comparando
+ * os estágios lado a lado. {@code auth.token.rejected} conta os tokens recusados
+ * por motivo.
+ */
+public final class MetricasAutenticacao {
+
+    public static final String VERIFICACAO_SENHA = "password_verify";
+    public static final String BUSCA_USUARIO = "user_lookup";
+    public static final String ASSINATURA_TOKEN = "token_sign";
+    public static final String VERIFICACAO_TOKEN = "token_verify";
+    public static final String FILTRO = "filter";
+
+    private MetricasAutenticacao() {
+    }
+
+    public static Timer estagio(MeterRegistry meterRegistry, String estagio) {
+        return Timer.builder("auth.stage.duration")
+                .description("Tempo de cada estágio do login e da autenticação por token")
+                .tag("stage", estagio)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public static Counter tokenRejeitado(MeterRegistry meterRegistry, String motivo) {
+        return Counter.builder("auth.token.rejected")
+                .description("Tokens recusados, por motivo")
+                .tag("reason", motivo)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Motivo da rejeição a partir da exceção do parser.
+     */
+    public static String motivo(RuntimeException e) {
+        if (e instanceof ExpiredJwtException) {
+            return "expired";
+        }
+        if (e instanceof SignatureException) {
+            return "signature";
+        }
+        if (e instanceof MalformedJwtException) {
+            return "malformed";
+        }
+        if (e instanceof UnsupportedJwtException) {
+            return "unsupported";
+        }
+        if (e instanceof IllegalArgumentException) {
+            return "empty";
+        }
+        return e instanceof JwtException ? "invalid" : "error";
+    }
+}
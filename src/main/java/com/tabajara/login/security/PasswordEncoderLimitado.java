@@ -0,0 +1,59 @@
+package com.tabajara.login.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.function.Consumer;
+
+/**
+ * Executa {@code encode} e {@code matches} do encoder delegado no
+ * {@link HashSenhaExecutor}, fora das threads de requisição.
+ */
+public class PasswordEncoderLimitado implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final HashSenhaExecutor executor;
+    private final Timer tempoVerificacao;
+
+    public PasswordEncoderLimitado(PasswordEncoder delegate, HashSenhaExecutor executor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.tempoVerificacao = MetricasAutenticacao.estagio(meterRegistry, MetricasAutenticacao.VERIFICACAO_SENHA);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.executa(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        // Inclui a espera na fila do pool, que é o que o login sente; o hash isolado fica em password.hash.duration
+        return tempoVerificacao.record(() -> executor.executa(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Gera o hash na thread atual, sem passar pelo pool. Para processamentos em
+     * lote que controlam o próprio paralelismo e não devem disputar a fila com
+     * os logins.
+     */
+    public String encodeNaThreadAtual(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    /**
+     * Gera o hash no pool sem bloquear o chamador. Se a fila estiver cheia a
+     * tarefa é descartada, pois quem usa este método pode tentar de novo depois.
+     *
+     * @return {@code true} se a tarefa foi aceita
+     */
+    public boolean encodeEmSegundoPlano(CharSequence rawPassword, Consumer<String> aoConcluir) {
+        return executor.tentaSubmeter(() -> aoConcluir.accept(delegate.encode(rawPassword)));
+    }
+}
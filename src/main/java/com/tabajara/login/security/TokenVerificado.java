@@ -0,0 +1,19 @@
+package com.tabajara.login.security;
+
+import com.tabajara.login.model.Role;
+
+/**
+ * Resultado de uma verificação de assinatura bem-sucedida: apenas o que o
+ * filtro precisa para montar a autenticação, sem reter o token original.
+ *
+ * Tokens emitidos antes da inclusão das claims de usuário não trazem
+ * {@code userId}, {@code role} nem {@code versao}; nesse caso
+ * {@link #autocontido()} é falso e o chamador precisa carregar o usuário.
+ * Esses tokens também não têm {@code jti} e, portanto, não podem ser revogados.
+ */
+public record TokenVerificado(String jti, String username, Long userId, Role role, Integer versao, long expiraEmMs) {
+
+    public boolean autocontido() {
+        return userId != null && role != null && versao != null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.tabajara.login.security;
+
+import com.tabajara.login.model.Role;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Principal montado apenas a partir das claims do token, sem acesso ao banco.
+ */
+public record UsuarioAutenticado(Long id, String username, Role role) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
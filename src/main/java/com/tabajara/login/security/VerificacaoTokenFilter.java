@@ -0,0 +1,83 @@
+package com.tabajara.login.security;
+
+import com.tabajara.login.dto.ResultadoIntrospeccao;
+import com.tabajara.login.service.IntrospeccaoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+
+/**
+ * {@code GET /api/auth/verify} para o {@code auth_request} do nginx: 200 com a
+ * identidade em {@code X-User}, {@code X-User-Id} e {@code X-Role}, ou 401, sempre
+ * sem corpo. As regras são as do {@link IntrospeccaoService}.
+ *
+ * Registrado como filtro só para essa URL, antes da cadeia do Spring Security,
+ * e responde sem seguir a cadeia: não passa por DispatcherServlet, conversores
+ * JSON nem pelo contexto de segurança. {@code X-Accel-Expires} diz ao cache do
+ * nginx por quanto tempo reaproveitar a resposta, nunca além do {@code exp} do token.
+ */
+public class VerificacaoTokenFilter implements Filter {
+
+    public static final String URL = "/api/auth/verify";
+
+    private static final String BEARER = "Bearer ";
+
+    private final IntrospeccaoService introspeccaoService;
+    private final long cacheSegundos;
+    private final Counter permitidos;
+    private final Counter negados;
+
+    public VerificacaoTokenFilter(IntrospeccaoService introspeccaoService, MeterRegistry meterRegistry,
+                                  long cacheSegundos) {
+        this.introspeccaoService = introspeccaoService;
+        this.cacheSegundos = cacheSegundos;
+        this.permitidos = resultado(meterRegistry, "allowed");
+        this.negados = resultado(meterRegistry, "denied");
+    }
+
+    private static Counter resultado(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("auth.verify.requests")
+                .description("Verificações de /api/auth/verify, por resultado")
+                .tag("result", resultado)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
+
+        String autorizacao = request.getHeader(HttpHeaders.AUTHORIZATION);
+        ResultadoIntrospeccao resultado = autorizacao != null && autorizacao.startsWith(BEARER)
+                ? introspeccaoService.verificaToken(autorizacao.substring(BEARER.length()))
+                : ResultadoIntrospeccao.inativo("missing");
+
+        response.setContentLength(0);
+        if (!resultado.active()) {
+            negados.increment();
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setHeader("X-Auth-Reason", resultado.reason());
+            // Token inválido continua inválido; só "error" (falha transitória) não vai para o cache
+            response.setHeader("X-Accel-Expires", "error".equals(resultado.reason()) ? "0" : Long.toString(cacheSegundos));
+            return;
+        }
+
+        permitidos.increment();
+        response.setStatus(HttpServletResponse.SC_OK);
+        // Headers saem em ISO-8859-1: para usernames fora disso, X-User-Id é a identidade confiável
+        response.setHeader("X-User", resultado.sub());
+        response.setHeader("X-User-Id", String.valueOf(resultado.userId()));
+        response.setHeader("X-Role", resultado.role().name());
+        long restante = resultado.exp() - System.currentTimeMillis() / 1000;
+        response.setHeader("X-Accel-Expires", Long.toString(Math.max(0, Math.min(cacheSegundos, restante))));
+    }
+}
@@ -1,79 +1,221 @@
 package com.tabajara.login.service;
 
+import com.tabajara.login.auditoria.AcaoAuditoria;
+import com.tabajara.login.auditoria.AuditoriaService;
+import com.tabajara.login.diagnostico.DiagnosticoDirecionado;
 import com.tabajara.login.dto.LoginRequest;
 import com.tabajara.login.dto.LoginResponse;
+import com.tabajara.login.dto.RefreshRequest;
 import com.tabajara.login.dto.RegisterRequest;
+import com.tabajara.login.exception.RegistroRecusadoException;
 import com.tabajara.login.model.Role;
 import com.tabajara.login.model.Usuario;
+import com.tabajara.login.model.UsuarioSnapshot;
 import com.tabajara.login.repository.UsuarioRepository;
+import com.tabajara.login.security.ClienteIpResolver;
+import com.tabajara.login.security.JwtTokenCache;
+import com.tabajara.login.security.LimitadorTentativas;
 import com.tabajara.login.security.JwtTokenProvider;
+import com.tabajara.login.security.ListaRevogacao;
+import com.tabajara.login.security.TokenVerificado;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.security.authentication.AccountExpiredException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @Service
 @Transactional
 public class AutenticacaoService implements IAutenticacaoService {
 
+    // Mesmos defaults da entidade; conflito de username ou email não insere nada
+    private static final String SQL_INSERT = "INSERT INTO usuarios (username, email, password, role, ativo, "
+            + "conta_nao_expirada, conta_nao_bloqueada, credencial_nao_expirada, criado_em, versao_seguranca) "
+            + "VALUES (?, ?, ?, ?, true, true, true, true, ?, 0) ON CONFLICT DO NOTHING";
+
     private final UsuarioRepository usuarioRepository;
+    private final JdbcTemplate jdbcTemplate;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
     private final AuthenticationManager authenticationManager;
+    private final RehashSenhaService rehashSenhaService;
+    private final UltimoLoginWriteBehind ultimoLoginWriteBehind;
+    private final PerfilService perfilService;
+    private final AuditoriaService auditoriaService;
+    private final DisponibilidadeService disponibilidadeService;
+    private final LimitadorTentativas limitadorTentativas;
+    private final ClienteIpResolver clienteIpResolver;
+    private final RefreshTokenService refreshTokenService;
+    private final JwtTokenCache tokenCache;
+    private final ListaRevogacao listaRevogacao;
+    private final Map<Class<?>, Counter> falhasPorMotivo;
+    private final Counter outrasFalhas;
 
     @Autowired
     public AutenticacaoService(
             UsuarioRepository usuarioRepository,
+            JdbcTemplate jdbcTemplate,
             PasswordEncoder passwordEncoder,
             JwtTokenProvider tokenProvider,
-            AuthenticationManager authenticationManager) {
+            AuthenticationManager authenticationManager,
+            RehashSenhaService rehashSenhaService,
+            UltimoLoginWriteBehind ultimoLoginWriteBehind,
+            PerfilService perfilService,
+            AuditoriaService auditoriaService,
+            DisponibilidadeService disponibilidadeService,
+            LimitadorTentativas limitadorTentativas,
+            ClienteIpResolver clienteIpResolver,
+            RefreshTokenService refreshTokenService,
+            JwtTokenCache tokenCache,
+            ListaRevogacao listaRevogacao,
+            MeterRegistry meterRegistry) {
         this.usuarioRepository = usuarioRepository;
+        this.jdbcTemplate = jdbcTemplate;
         this.passwordEncoder = passwordEncoder;
         this.tokenProvider = tokenProvider;
         this.authenticationManager = authenticationManager;
+        this.rehashSenhaService = rehashSenhaService;
+        this.ultimoLoginWriteBehind = ultimoLoginWriteBehind;
+        this.perfilService = perfilService;
+        this.auditoriaService = auditoriaService;
+        this.disponibilidadeService = disponibilidadeService;
+        this.limitadorTentativas = limitadorTentativas;
+        this.clienteIpResolver = clienteIpResolver;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenCache = tokenCache;
+        this.listaRevogacao = listaRevogacao;
+        this.falhasPorMotivo = Map.of(
+                BadCredentialsException.class, falhaLogin(meterRegistry, "bad_credentials"),
+                LockedException.class, falhaLogin(meterRegistry, "locked"),
+                DisabledException.class, falhaLogin(meterRegistry, "disabled"),
+                AccountExpiredException.class, falhaLogin(meterRegistry, "account_expired"),
+                CredentialsExpiredException.class, falhaLogin(meterRegistry, "credentials_expired"));
+        this.outrasFalhas = falhaLogin(meterRegistry, "other");
+    }
+
+    private static Counter falhaLogin(MeterRegistry meterRegistry, String motivo) {
+        return Counter.builder("auth.login.failed")
+                .description("Logins recusados pelo AuthenticationManager, por motivo")
+                .tag("reason", motivo)
+                .register(meterRegistry);
     }
 
+    // O hash da senha roda fora de transação para não segurar uma conexão do pool
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public LoginResponse login(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getUsername(),
-                        loginRequest.getPassword()
-                )
-        );
+        String ip = clienteIpResolver.resolveAtual();
+        // Login ainda não tem userId; o username permite diagnosticar uma conta desde a primeira tentativa
+        MDC.put(DiagnosticoDirecionado.MDC_USERNAME, loginRequest.getUsername());
+        // Antes de qualquer hash: acima do limite a tentativa não custa CPU nem banco
+        limitadorTentativas.verifica(loginRequest.getUsername(), ip);
+
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            loginRequest.getUsername(),
+                            loginRequest.getPassword()
+                    )
+            );
+        } catch (AuthenticationException e) {
+            falhasPorMotivo.getOrDefault(e.getClass(), outrasFalhas).increment();
+            if (e instanceof BadCredentialsException) {
+                limitadorTentativas.registraFalha(loginRequest.getUsername(), ip);
+            }
+            auditoriaService.registra(AcaoAuditoria.LOGIN_FALHA, null,
+                    loginRequest.getUsername() + ": " + e.getClass().getSimpleName());
+            throw e;
+        }
 
+        limitadorTentativas.registraSucesso(loginRequest.getUsername());
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String token = tokenProvider.generateToken(authentication);
-        Usuario user = usuarioRepository.findByUsername(loginRequest.getUsername())
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+        UsuarioSnapshot user = (UsuarioSnapshot) authentication.getPrincipal();
+        rehashSenhaService.regravaSeNecessario(user, loginRequest.getPassword());
+        ultimoLoginWriteBehind.registra(user.getId(), LocalDateTime.now());
+        perfilService.invalida(user.getId());
+        auditoriaService.registra(AcaoAuditoria.LOGIN_SUCESSO, user.getId(), null);
 
-        // O repositório não tem o método updateLastLogin, mas esta seria a forma correta
-        // user.setUltimoLogin(LocalDateTime.now());
-        // usuarioRepository.save(user);
+        return resposta(token, user, refreshTokenService.emite(user));
+    }
+
+    /**
+     * Novo access token a partir de um refresh token, sem verificar senha.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public LoginResponse refresh(RefreshRequest refreshRequest) {
+        RefreshTokenService.Rotacao rotacao = refreshTokenService.rotaciona(refreshRequest.getRefreshToken());
+        UsuarioSnapshot user = rotacao.usuario();
+        return resposta(tokenProvider.generateToken(user), user, rotacao.refreshToken());
+    }
+
+    /**
+     * Revoga o access token até o seu vencimento e, se informado, a sessão do refresh token.
+     * Tokens emitidos antes do {@code jti} não podem ser revogados e valem até expirar.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            TokenVerificado token = tokenCache.verifica(accessToken);
+            if (token.jti() != null) {
+                listaRevogacao.revoga(token.jti(), token.userId(), token.expiraEmMs());
+            }
+            tokenCache.invalida(accessToken);
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoga(refreshToken);
+        }
+    }
 
+    private LoginResponse resposta(String token, UsuarioSnapshot user, String refreshToken) {
         return new LoginResponse(
                 token,
                 user.getUsername(),
                 user.getEmail(),
                 user.getRole(),
-                tokenProvider.getTempoExpiracao()
+                tokenProvider.getTempoExpiracao(),
+                refreshToken,
+                refreshTokenService.getTempoExpiracao()
         );
     }
 
+    /**
+     * Registra com um único INSERT: a unicidade de username e email fica a cargo
+     * das constraints do banco. Não há janela entre verificação e inserção, e o
+     * hash da senha é calculado antes de pegar uma conexão.
+     *
+     * O INSERT vai por JDBC com {@code ON CONFLICT DO NOTHING}, como na
+     * importação em massa: um registro duplicado é um erro comum do cliente e
+     * não pode virar exceção de constraint, que o Hibernate loga em ERROR com
+     * os valores enviados. Sem linha inserida, a mensagem sai de qual dos dois
+     * valores já existe.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Usuario register(RegisterRequest registerRequest) {
-        if (usuarioRepository.findByUsername(registerRequest.getUsername()).isPresent()) {
-            throw new RuntimeException("Username já está em uso!");
-        }
-
-        if (usuarioRepository.findByEmail(registerRequest.getEmail()).isPresent()) {
-            throw new RuntimeException("Email já está em uso!");
-        }
-
         Usuario user = new Usuario(
                 registerRequest.getUsername(),
                 registerRequest.getEmail(),
@@ -81,7 +223,35 @@ public class AutenticacaoService implements IAutenticacaoService {
                 Role.USUARIO
         );
 
-        return usuarioRepository.save(user);
+        GeneratedKeyHolder chave = new GeneratedKeyHolder();
+        int inseridos = jdbcTemplate.update(conexao -> {
+            PreparedStatement ps = conexao.prepareStatement(SQL_INSERT, new String[]{"id"});
+            ps.setString(1, user.getUsername());
+            ps.setString(2, user.getEmail());
+            ps.setString(3, user.getPassword());
+            ps.setString(4, user.getRole().name());
+            ps.setTimestamp(5, Timestamp.valueOf(user.getCriadoEm()));
+            return ps;
+        }, chave);
+        if (inseridos == 0) {
+            throw new RegistroRecusadoException(mensagemConflito(user));
+        }
+        user.setId(chave.getKeyAs(Number.class).longValue());
+
+        disponibilidadeService.registra(user.getUsername(), user.getEmail());
+        auditoriaService.registra(AcaoAuditoria.REGISTRO, user.getId(), null);
+        return user;
+    }
+
+    private String mensagemConflito(Usuario usuario) {
+        if (usuarioRepository.existsByUsername(usuario.getUsername())) {
+            return "Username já está em uso!";
+        }
+        if (usuarioRepository.existsByEmail(usuario.getEmail())) {
+            return "Email já está em uso!";
+        }
+        // A conta conflitante foi removida entre o INSERT e a consulta
+        return "Não foi possível concluir o registro";
     }
 
     @Override
@@ -90,13 +260,17 @@ public class AutenticacaoService implements IAutenticacaoService {
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado: " + username));
     }
 
+    // Resposta do filtro de Bloom não deve abrir transação nem pegar conexão
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean verificaExistenciaUsername(String username) {
-        return usuarioRepository.findByUsername(username).isPresent();
+        return !disponibilidadeService.usernameDisponivel(username);
     }
 
+    // Resposta do filtro de Bloom não deve abrir transação nem pegar conexão
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean verificaExistenciaEmail(String email) {
-        return usuarioRepository.findByEmail(email).isPresent();
+        return !disponibilidadeService.emailDisponivel(email);
     }
 }
\ No newline at end of file
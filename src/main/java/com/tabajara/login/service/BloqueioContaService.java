@@ -0,0 +1,98 @@
+package com.tabajara.login.service;
+
+import com.tabajara.login.auditoria.AcaoAuditoria;
+import com.tabajara.login.auditoria.AuditoriaService;
+import com.tabajara.login.model.Usuario;
+import com.tabajara.login.repository.UsuarioRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Bloqueia contas alvo de tentativas repetidas de senha.
+ *
+ * O bloqueio automático tem prazo ({@code bloqueadoAte}) e é desfeito por
+ * {@link #desbloqueiaVencidos()}; um administrador pode desbloquear antes.
+ * A alteração passa pela entidade, então a versão de segurança é
+ * incrementada e os caches são invalidados pelo {@link UsuarioAlteracaoListener}
+ * como em qualquer outra mudança: tokens já emitidos deixam de valer.
+ */
+@Service
+public class BloqueioContaService {
+
+    private final UsuarioRepository usuarioRepository;
+    private final AuditoriaService auditoriaService;
+    private final Counter bloqueios;
+    private final Counter desbloqueios;
+
+    @Autowired
+    public BloqueioContaService(UsuarioRepository usuarioRepository,
+                                AuditoriaService auditoriaService,
+                                MeterRegistry meterRegistry) {
+        this.usuarioRepository = usuarioRepository;
+        this.auditoriaService = auditoriaService;
+        this.bloqueios = Counter.builder("auth.account.locked")
+                .description("Contas bloqueadas por excesso de tentativas")
+                .register(meterRegistry);
+        this.desbloqueios = Counter.builder("auth.account.unlocked")
+                .description("Contas desbloqueadas pelo fim do prazo ou por um administrador")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Idempotente: uma conta já bloqueada fica como está, sem estender o prazo
+     * nem contar ou auditar de novo. Pedidos repetidos da mesma instância são
+     * filtrados antes, pelo {@code LimitadorTentativas}.
+     *
+     * @param login   username ou email usado nas tentativas
+     * @param duracao tempo até o desbloqueio automático
+     */
+    @Transactional
+    public void bloqueia(String login, Duration duracao) {
+        usuarioRepository.findByUsernameOrEmail(login, login)
+                .filter(usuario -> usuario.isAccountNonLocked())
+                .ifPresent(usuario -> {
+                    usuario.setContaNaoBloqueada(false);
+                    usuario.setBloqueadoAte(LocalDateTime.now().plus(duracao));
+                    bloqueios.increment();
+                    auditoriaService.registra(AcaoAuditoria.CONTA_BLOQUEADA, usuario.getId(),
+                            "Excesso de tentativas de login até " + usuario.getBloqueadoAte());
+                });
+    }
+
+    /**
+     * @return {@code false} se a conta não existir ou não estiver bloqueada
+     */
+    @Transactional
+    public boolean desbloqueia(String login) {
+        return usuarioRepository.findByUsernameOrEmail(login, login)
+                .filter(usuario -> !usuario.isAccountNonLocked())
+                .map(usuario -> {
+                    desbloqueia(usuario, "Desbloqueio administrativo");
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    // Idempotente: com várias instâncias, a segunda não encontra mais a conta
+    @Scheduled(fixedDelayString = "${auth.throttle.sweep-interval-ms:60000}")
+    @Transactional
+    public void desbloqueiaVencidos() {
+        for (Usuario usuario : usuarioRepository.findByContaNaoBloqueadaFalseAndBloqueadoAteLessThanEqual(LocalDateTime.now())) {
+            desbloqueia(usuario, "Fim do bloqueio por excesso de tentativas");
+        }
+    }
+
+    private void desbloqueia(Usuario usuario, String motivo) {
+        usuario.setContaNaoBloqueada(true);
+        usuario.setBloqueadoAte(null);
+        desbloqueios.increment();
+        auditoriaService.registra(AcaoAuditoria.CONTA_DESBLOQUEADA, usuario.getId(), motivo);
+    }
+}
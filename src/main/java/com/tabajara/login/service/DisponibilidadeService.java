@@ -0,0 +1,171 @@
+package com.tabajara.login.service;
+
+import com.tabajara.login.cache.FiltroBloom;
+import com.tabajara.login.repository.UsuarioRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Responde se username e email estão livres sem ir ao banco no caso comum.
+ *
+ * Mantém um {@link FiltroBloom} para cada coluna, carregado de {@code usuarios}
+ * na inicialização e atualizado a cada registro ou importação. Se o filtro diz
+ * que o valor não existe, a resposta "disponível" sai da memória; só os
+ * possíveis acertos viram um {@code existsBy...} no índice.
+ *
+ * Registros feitos por outras instâncias só aparecem na próxima reconstrução
+ * ({@code auth.disponibilidade.rebuild-interval-ms}). A resposta é apenas
+ * indicativa: quem garante a unicidade continua sendo a constraint do banco.
+ */
+@Service
+public class DisponibilidadeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DisponibilidadeService.class);
+
+    private final UsuarioRepository usuarioRepository;
+    private final JdbcTemplate cursor;
+    private final TransactionTemplate transacaoLeitura;
+    private final Counter respostasMemoria;
+    private final Counter consultasLivre;
+    private final Counter consultasEmUso;
+    // Lock em vez de synchronized: a carga faz I/O e, em thread virtual, um monitor prenderia a carrier
+    private final ReentrantLock carga = new ReentrantLock();
+
+    @Value("${auth.disponibilidade.expected-insertions:1000000}")
+    private long capacidadeMinima;
+
+    @Value("${auth.disponibilidade.false-positive-rate:0.01}")
+    private double taxaFalsoPositivo;
+
+    // Filtros em uso e em construção num só campo: registra() lê os dois de uma vez, então
+    // nunca vê o par do meio de uma troca. Só é alterado com o lock de carga.
+    private volatile Estado estado = new Estado(null, null);
+
+    @Autowired
+    public DisponibilidadeService(UsuarioRepository usuarioRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.usuarioRepository = usuarioRepository;
+        // Cursor no servidor (exige transação no Postgres) para não trazer a tabela inteira de uma vez
+        this.cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.cursor.setFetchSize(10_000);
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+
+        this.respostasMemoria = resultado(meterRegistry, "bloom");
+        this.consultasLivre = resultado(meterRegistry, "db_disponivel");
+        this.consultasEmUso = resultado(meterRegistry, "db_em_uso");
+    }
+
+    private static Counter resultado(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("auth.availability.checks")
+                .description("Consultas de disponibilidade por origem da resposta")
+                .tag("result", resultado)
+                .register(meterRegistry);
+    }
+
+    public boolean usernameDisponivel(String username) {
+        Filtros atual = estado.ativos();
+        return disponivel(username, atual == null ? null : atual.usernames(), usuarioRepository::existsByUsername);
+    }
+
+    public boolean emailDisponivel(String email) {
+        Filtros atual = estado.ativos();
+        return disponivel(email, atual == null ? null : atual.emails(), usuarioRepository::existsByEmail);
+    }
+
+    private boolean disponivel(String valor, FiltroBloom filtro, Predicate<String> existeNoBanco) {
+        if (filtro != null && !filtro.talvezContenha(valor)) {
+            respostasMemoria.increment();
+            return true;
+        }
+        // Possível acerto (ou falso positivo do filtro): confirma no índice
+        if (existeNoBanco.test(valor)) {
+            consultasEmUso.increment();
+            return false;
+        }
+        consultasLivre.increment();
+        return true;
+    }
+
+    /**
+     * Marca username e email como usados. Chamado após cada inserção em {@code usuarios}
+     * já confirmada: se a carga começar depois da leitura de {@code estado}, a linha
+     * aparece na própria varredura da tabela.
+     */
+    public void registra(String username, String email) {
+        Estado atual = estado;
+        adiciona(atual.ativos(), username, email);
+        adiciona(atual.emCarga(), username, email);
+    }
+
+    private static void adiciona(Filtros destino, String username, String email) {
+        if (destino != null) {
+            destino.usernames().adiciona(username);
+            destino.emails().adiciona(email);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carrega() {
+        carga.lock();
+        try {
+            carregaFiltros();
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    private void carregaFiltros() {
+        long inicio = System.currentTimeMillis();
+        Long total = cursor.queryForObject("SELECT COUNT(*) FROM usuarios", Long.class);
+        // Folga para crescer até a próxima reconstrução sem estourar a taxa de falsos positivos
+        long capacidade = Math.max(capacidadeMinima, (total == null ? 0 : total) * 2);
+        Filtros novos = new Filtros(new FiltroBloom(capacidade, taxaFalsoPositivo),
+                new FiltroBloom(capacidade, taxaFalsoPositivo));
+
+        Filtros anteriores = estado.ativos();
+        estado = new Estado(anteriores, novos);
+        try {
+            transacaoLeitura.executeWithoutResult(status -> cursor.query("SELECT username, email FROM usuarios", rs -> {
+                novos.usernames().adiciona(rs.getString(1));
+                novos.emails().adiciona(rs.getString(2));
+            }));
+        } catch (RuntimeException e) {
+            // Mantém os filtros anteriores; registra() deixa de alimentar a carga abortada
+            estado = new Estado(anteriores, null);
+            throw e;
+        }
+        estado = new Estado(novos, null);
+        logger.info("Filtros de disponibilidade carregados: {} usuário(s), {} KiB cada, em {} ms",
+                total, novos.usernames().tamanhoEmBytes() / 1024, System.currentTimeMillis() - inicio);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.disponibilidade.rebuild-interval-ms:3600000}",
+            initialDelayString = "${auth.disponibilidade.rebuild-interval-ms:3600000}")
+    public void reconstroi() {
+        carrega();
+    }
+
+    private record Filtros(FiltroBloom usernames, FiltroBloom emails) {
+    }
+
+    // ativos é null até a primeira carga, e nesse intervalo tudo vai ao banco; emCarga só existe durante uma carga
+    private record Estado(Filtros ativos, Filtros emCarga) {
+    }
+}
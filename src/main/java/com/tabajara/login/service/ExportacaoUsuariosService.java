@@ -0,0 +1,138 @@
+package com.tabajara.login.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Exportação de usuários em NDJSON ou CSV, escrita direto na resposta.
+ *
+ * A consulta roda numa transação somente leitura com {@code fetch-size}
+ * definido, o que faz o driver do Postgres usar um cursor no servidor: só um
+ * bloco de linhas fica em memória por vez, qualquer que seja o tamanho da
+ * tabela. Hashes de senha nunca são exportados.
+ */
+@Service
+public class ExportacaoUsuariosService {
+
+    private static final String SQL = "SELECT id, username, email, role, ativo, conta_nao_bloqueada, criado_em, "
+            + "ultimo_login FROM usuarios ORDER BY id";
+
+    private static final String CABECALHO_CSV = "id,username,email,role,ativo,conta_nao_bloqueada,criado_em,ultimo_login";
+
+    private final JdbcTemplate cursor;
+    private final TransactionTemplate transacaoLeitura;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ExportacaoUsuariosService(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     ObjectMapper objectMapper,
+                                     @Value("${admin.export.fetch-size:1000}") int tamanhoFetch) {
+        this.cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.cursor.setFetchSize(tamanhoFetch);
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void exporta(OutputStream saida, FormatoArquivoUsuarios formato) throws IOException {
+        try {
+            if (formato == FormatoArquivoUsuarios.CSV) {
+                exportaCsv(saida);
+            } else {
+                exportaNdjson(saida);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void exportaNdjson(OutputStream saida) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(saida);
+        json.setRootValueSeparator(null);
+        consulta(rs -> {
+            try {
+                json.writeStartObject();
+                json.writeNumberField("id", rs.getLong("id"));
+                json.writeStringField("username", rs.getString("username"));
+                json.writeStringField("email", rs.getString("email"));
+                json.writeStringField("role", rs.getString("role"));
+                json.writeBooleanField("ativo", rs.getBoolean("ativo"));
+                json.writeBooleanField("conta_nao_bloqueada", rs.getBoolean("conta_nao_bloqueada"));
+                json.writeStringField("criado_em", instante(rs, "criado_em"));
+                json.writeStringField("ultimo_login", instante(rs, "ultimo_login"));
+                json.writeEndObject();
+                json.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        json.flush();
+    }
+
+    private void exportaCsv(OutputStream saida) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        escritor.write(CABECALHO_CSV);
+        escritor.write('\n');
+        consulta(rs -> {
+            try {
+                escritor.write(Long.toString(rs.getLong("id")));
+                escritor.write(',');
+                escritor.write(campoCsv(rs.getString("username")));
+                escritor.write(',');
+                escritor.write(campoCsv(rs.getString("email")));
+                escritor.write(',');
+                escritor.write(rs.getString("role"));
+                escritor.write(',');
+                escritor.write(Boolean.toString(rs.getBoolean("ativo")));
+                escritor.write(',');
+                escritor.write(Boolean.toString(rs.getBoolean("conta_nao_bloqueada")));
+                escritor.write(',');
+                escritor.write(campoCsv(instante(rs, "criado_em")));
+                escritor.write(',');
+                escritor.write(campoCsv(instante(rs, "ultimo_login")));
+                escritor.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        escritor.flush();
+    }
+
+    private void consulta(RowCallbackHandler linha) {
+        transacaoLeitura.executeWithoutResult(status -> cursor.query(SQL, linha));
+    }
+
+    private static String instante(ResultSet rs, String coluna) throws SQLException {
+        Timestamp valor = rs.getTimestamp(coluna);
+        return valor == null ? null : valor.toLocalDateTime().toString();
+    }
+
+    private static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,31 @@
+package com.tabajara.login.service;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formatos aceitos na importação e exportação de usuários em massa.
+ */
+public enum FormatoArquivoUsuarios {
+
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final MediaType mediaType;
+
+    FormatoArquivoUsuarios(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static FormatoArquivoUsuarios de(MediaType contentType) {
+        for (FormatoArquivoUsuarios formato : values()) {
+            if (formato.mediaType.isCompatibleWith(contentType)) {
+                return formato;
+            }
+        }
+        throw new IllegalArgumentException("Formato não suportado: " + contentType + " (use application/x-ndjson ou text/csv)");
+    }
+}
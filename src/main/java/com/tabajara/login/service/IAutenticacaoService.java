@@ -2,12 +2,15 @@ package com.tabajara.login.service;
 
 import com.tabajara.login.dto.LoginRequest;
 import com.tabajara.login.dto.LoginResponse;
+import com.tabajara.login.dto.RefreshRequest;
 import com.tabajara.login.dto.RegisterRequest;
 import com.tabajara.login.model.Usuario;
 
 public interface IAutenticacaoService {
 
     LoginResponse login(LoginRequest loginRequest);
+    LoginResponse refresh(RefreshRequest refreshRequest);
+    void logout(String accessToken, String refreshToken);
     Usuario register(RegisterRequest registerRequest);
     Usuario buscaPorUsername(String username);
     boolean verificaExistenciaUsername(String username);
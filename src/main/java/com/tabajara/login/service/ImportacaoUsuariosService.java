@@ -0,0 +1,365 @@
+package com.tabajara.login.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tabajara.login.dto.RegisterRequest;
+import com.tabajara.login.dto.ResultadoImportacao;
+import com.tabajara.login.model.Role;
+import com.tabajara.login.security.PasswordEncoderLimitado;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Importação de usuários em massa a partir de NDJSON ou CSV.
+ *
+ * O corpo é lido linha a linha e processado em blocos de {@code batch-size}:
+ * cada bloco faz uma consulta para descartar usernames e emails já
+ * existentes (antes de gastar CPU com hash), calcula os hashes em paralelo
+ * num pool próprio e insere tudo num único batch JDBC com
+ * {@code ON CONFLICT DO NOTHING}. A memória usada depende do tamanho do
+ * bloco, não do arquivo.
+ *
+ * Cada linha traz {@code username}, {@code email}, {@code role} (opcional) e
+ * {@code password} ou {@code password_hash} (BCrypt já calculado, gravado sem
+ * refazer o hash; o login o regrava se o custo estiver abaixo do atual).
+ */
+@Service
+public class ImportacaoUsuariosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacaoUsuariosService.class);
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./A-Za-z0-9]{53}$");
+
+    private static final String PREFIXO_BCRYPT = "{bcrypt}";
+
+    private static final String SQL_INSERT = "INSERT INTO usuarios (username, email, password, role, ativo, "
+            + "conta_nao_expirada, conta_nao_bloqueada, credencial_nao_expirada, criado_em, versao_seguranca) "
+            + "VALUES (?, ?, ?, ?, true, true, true, true, ?, 0) ON CONFLICT DO NOTHING";
+
+    private static final String SQL_EXISTENTES = "SELECT username, email FROM usuarios "
+            + "WHERE username IN (:usernames) OR email IN (:emails)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final PasswordEncoderLimitado passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final DisponibilidadeService disponibilidadeService;
+    private final ExecutorService poolHash;
+
+    @Value("${admin.import.batch-size:500}")
+    private int tamanhoLote;
+
+    @Value("${admin.import.max-errors:1000}")
+    private int maximoErros;
+
+    @Autowired
+    public ImportacaoUsuariosService(JdbcTemplate jdbcTemplate,
+                                     PasswordEncoderLimitado passwordEncoder,
+                                     ObjectMapper objectMapper,
+                                     Validator validator,
+                                     DisponibilidadeService disponibilidadeService,
+                                     @Value("${admin.import.hash-threads:0}") int threadsHash) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.disponibilidadeService = disponibilidadeService;
+
+        // Por padrão metade dos núcleos, para não tirar CPU dos logins durante a importação
+        int threads = threadsHash > 0 ? threadsHash : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger contador = new AtomicInteger();
+        this.poolHash = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "import-hash-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public ResultadoImportacao importa(InputStream corpo, FormatoArquivoUsuarios formato) throws IOException {
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        BufferedReader leitor = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8));
+        List<LinhaImportacao> lote = new ArrayList<>(tamanhoLote);
+
+        Map<String, Integer> colunas = null;
+        long numero = 0;
+        String texto;
+        while ((texto = leitor.readLine()) != null) {
+            numero++;
+            if (texto.isBlank()) {
+                continue;
+            }
+            if (formato == FormatoArquivoUsuarios.CSV && colunas == null) {
+                colunas = cabecalhoCsv(texto);
+                continue;
+            }
+            resultado.contaLinha();
+            try {
+                LinhaImportacao linha = formato == FormatoArquivoUsuarios.CSV
+                        ? linhaCsv(numero, texto, colunas)
+                        : linhaNdjson(numero, texto);
+                valida(linha);
+                lote.add(linha);
+            } catch (JsonProcessingException e) {
+                resultado.rejeita(numero, "JSON inválido: " + e.getOriginalMessage(), maximoErros);
+            } catch (IllegalArgumentException e) {
+                resultado.rejeita(numero, e.getMessage(), maximoErros);
+            }
+            if (lote.size() == tamanhoLote) {
+                processaLote(lote, resultado);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            processaLote(lote, resultado);
+        }
+        logger.info("Importação concluída: {} linha(s), {} inserida(s), {} rejeitada(s)",
+                resultado.getLinhas(), resultado.getInseridos(), resultado.getRejeitados());
+        return resultado;
+    }
+
+    private void processaLote(List<LinhaImportacao> lote, ResultadoImportacao resultado) {
+        List<LinhaImportacao> novas = descartaExistentes(lote, resultado);
+        if (novas.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<String>> hashes = novas.stream()
+                .map(linha -> linha.hash() != null
+                        ? CompletableFuture.completedFuture(PREFIXO_BCRYPT + linha.hash())
+                        : CompletableFuture.supplyAsync(() -> passwordEncoder.encodeNaThreadAtual(linha.senha()), poolHash))
+                .toList();
+
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> argumentos = new ArrayList<>(novas.size());
+        for (int i = 0; i < novas.size(); i++) {
+            LinhaImportacao linha = novas.get(i);
+            argumentos.add(new Object[]{linha.username(), linha.email(), hashes.get(i).join(), linha.role().name(), agora});
+        }
+        Set<String> inseridos = insere(argumentos);
+
+        for (LinhaImportacao linha : novas) {
+            // Ausente só se outra transação inseriu o mesmo username ou email depois da verificação do lote
+            if (inseridos.contains(linha.username())) {
+                resultado.contaInseridos(1);
+                disponibilidadeService.registra(linha.username(), linha.email());
+            } else {
+                resultado.rejeita(linha.numero(), "Username ou email já está em uso!", maximoErros);
+            }
+        }
+    }
+
+    /**
+     * Insere o lote num único batch e devolve os usernames efetivamente gravados.
+     *
+     * As contagens por linha não servem para detectar conflitos: com
+     * {@code reWriteBatchedInserts} o driver do Postgres devolve
+     * {@code SUCCESS_NO_INFO} (-2) para todas. O {@code username} é pedido como
+     * chave gerada ({@code RETURNING username}), que só volta para as linhas
+     * que o {@code ON CONFLICT DO NOTHING} não descartou, com ou sem reescrita.
+     */
+    private Set<String> insere(List<Object[]> argumentos) {
+        GeneratedKeyHolder chaves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                conexao -> conexao.prepareStatement(SQL_INSERT, new String[]{"username"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Object[] valores = argumentos.get(i);
+                        for (int coluna = 0; coluna < valores.length; coluna++) {
+                            ps.setObject(coluna + 1, valores[coluna]);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return argumentos.size();
+                    }
+                },
+                chaves);
+        Set<String> inseridos = new HashSet<>();
+        for (Map<String, Object> chave : chaves.getKeyList()) {
+            inseridos.add((String) chave.get("username"));
+        }
+        return inseridos;
+    }
+
+    // Uma consulta por lote no lugar de duas por linha; também elimina repetições dentro do próprio lote
+    private List<LinhaImportacao> descartaExistentes(List<LinhaImportacao> lote, ResultadoImportacao resultado) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("usernames", lote.stream().map(LinhaImportacao::username).collect(Collectors.toSet()))
+                .addValue("emails", lote.stream().map(LinhaImportacao::email).collect(Collectors.toSet()));
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        namedJdbcTemplate.query(SQL_EXISTENTES, parametros, rs -> {
+            usernames.add(rs.getString(1));
+            emails.add(rs.getString(2));
+        });
+
+        List<LinhaImportacao> novas = new ArrayList<>(lote.size());
+        for (LinhaImportacao linha : lote) {
+            // Confere os dois antes de reservar qualquer um: uma linha rejeitada pelo email
+            // não pode tomar o username de uma linha seguinte
+            if (usernames.contains(linha.username())) {
+                resultado.rejeita(linha.numero(), "Username já está em uso!", maximoErros);
+            } else if (emails.contains(linha.email())) {
+                resultado.rejeita(linha.numero(), "Email já está em uso!", maximoErros);
+            } else {
+                usernames.add(linha.username());
+                emails.add(linha.email());
+                novas.add(linha);
+            }
+        }
+        return novas;
+    }
+
+    private void valida(LinhaImportacao linha) {
+        if ((linha.senha() == null) == (linha.hash() == null)) {
+            throw new IllegalArgumentException("Informe password ou password_hash");
+        }
+        if (linha.hash() != null && !BCRYPT.matcher(linha.hash()).matches()) {
+            throw new IllegalArgumentException("password_hash não é um hash BCrypt");
+        }
+        RegisterRequest request = new RegisterRequest(linha.username(), linha.email(),
+                linha.senha() != null ? linha.senha() : linha.hash());
+        Set<ConstraintViolation<RegisterRequest>> violacoes = validator.validate(request);
+        if (!violacoes.isEmpty()) {
+            throw new IllegalArgumentException(violacoes.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private LinhaImportacao linhaNdjson(long numero, String texto) throws JsonProcessingException {
+        JsonNode no = objectMapper.readTree(texto);
+        if (!no.isObject()) {
+            throw new IllegalArgumentException("Linha não é um objeto JSON");
+        }
+        return linha(numero, texto(no, "username"), texto(no, "email"), texto(no, "password"),
+                texto(no, "password_hash"), texto(no, "role"));
+    }
+
+    private static String texto(JsonNode no, String campo) {
+        JsonNode valor = no.get(campo);
+        return valor == null || valor.isNull() ? null : valor.asText();
+    }
+
+    private static Map<String, Integer> cabecalhoCsv(String texto) {
+        List<String> nomes = camposCsv(texto);
+        Map<String, Integer> colunas = new HashMap<>();
+        for (int i = 0; i < nomes.size(); i++) {
+            colunas.put(nomes.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!colunas.containsKey("username") || !colunas.containsKey("email")) {
+            throw new IllegalArgumentException("Cabeçalho CSV deve conter ao menos username e email");
+        }
+        return colunas;
+    }
+
+    private static LinhaImportacao linhaCsv(long numero, String texto, Map<String, Integer> colunas) {
+        List<String> campos = camposCsv(texto);
+        return linha(numero, campo(campos, colunas, "username"), campo(campos, colunas, "email"),
+                campo(campos, colunas, "password"), campo(campos, colunas, "password_hash"),
+                campo(campos, colunas, "role"));
+    }
+
+    private static String campo(List<String> campos, Map<String, Integer> colunas, String nome) {
+        Integer indice = colunas.get(nome);
+        if (indice == null || indice >= campos.size()) {
+            return null;
+        }
+        String valor = campos.get(indice);
+        return valor.isEmpty() ? null : valor;
+    }
+
+    // CSV (RFC 4180) de uma linha: campos separados por vírgula, aspas duplas para escapar
+    private static List<String> camposCsv(String texto) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < texto.length() && texto.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        if (entreAspas) {
+            throw new IllegalArgumentException("Aspas não fechadas");
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+
+    private static LinhaImportacao linha(long numero, String username, String email, String senha,
+                                         String hash, String role) {
+        Role papel;
+        try {
+            papel = role == null ? Role.USUARIO : Role.valueOf(role.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Role inválida: " + role);
+        }
+        if (hash != null && hash.startsWith(PREFIXO_BCRYPT)) {
+            hash = hash.substring(PREFIXO_BCRYPT.length());
+        }
+        return new LinhaImportacao(numero, username, email, senha, hash, papel);
+    }
+
+    @PreDestroy
+    public void encerra() {
+        poolHash.shutdownNow();
+    }
+
+    private record LinhaImportacao(long numero, String username, String email, String senha, String hash, Role role) {
+    }
+}
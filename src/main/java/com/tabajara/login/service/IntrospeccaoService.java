@@ -0,0 +1,190 @@
+package com.tabajara.login.service;
+
+import com.tabajara.login.dto.ResultadoIntrospeccao;
+import com.tabajara.login.exception.LogAmostrado;
+import com.tabajara.login.model.UsuarioSnapshot;
+import com.tabajara.login.security.JwtTokenCache;
+import com.tabajara.login.security.ListaRevogacao;
+import com.tabajara.login.security.MetricasAutenticacao;
+import com.tabajara.login.security.TokenVerificado;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifica lotes de tokens para gateways e jobs, com as mesmas regras do
+ * {@code JwtAuthenticationFilter}: assinatura e expiração (pelo
+ * {@link JwtTokenCache}), revogação e versão de segurança.
+ *
+ * O lote é dividido em fatias contíguas, uma por thread de um pool dedicado
+ * de {@code jwt.introspection.threads}; a thread da requisição processa a
+ * primeira fatia. Lotes de até {@code jwt.introspection.min-chunk} tokens
+ * rodam inteiros na thread da requisição, onde dividir custaria mais que verificar.
+ */
+@Service
+public class IntrospeccaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntrospeccaoService.class);
+
+    private final JwtTokenCache tokenCache;
+    private final ListaRevogacao listaRevogacao;
+    private final VersaoSegurancaService versaoSegurancaService;
+    private final UsuarioDetalheService usuarioDetalheService;
+    private final LogAmostrado logAmostrado;
+    private final ExecutorService pool;
+    private final int threads;
+    private final int tamanhoMaximoLote;
+    private final int fatiaMinima;
+    private final Counter revogados;
+    private final Counter versaoObsoleta;
+    private final DistributionSummary tamanhoLote;
+
+    @Autowired
+    public IntrospeccaoService(JwtTokenCache tokenCache,
+                               ListaRevogacao listaRevogacao,
+                               VersaoSegurancaService versaoSegurancaService,
+                               UsuarioDetalheService usuarioDetalheService,
+                               LogAmostrado logAmostrado,
+                               MeterRegistry meterRegistry,
+                               @Value("${jwt.introspection.max-batch:1000}") int tamanhoMaximoLote,
+                               @Value("${jwt.introspection.threads:0}") int threads,
+                               @Value("${jwt.introspection.min-chunk:64}") int fatiaMinima) {
+        this.tokenCache = tokenCache;
+        this.listaRevogacao = listaRevogacao;
+        this.versaoSegurancaService = versaoSegurancaService;
+        this.usuarioDetalheService = usuarioDetalheService;
+        this.logAmostrado = logAmostrado;
+        this.tamanhoMaximoLote = tamanhoMaximoLote;
+        this.fatiaMinima = Math.max(1, fatiaMinima);
+
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread t = new Thread(r, "introspect-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.revogados = MetricasAutenticacao.tokenRejeitado(meterRegistry, "revoked");
+        this.versaoObsoleta = MetricasAutenticacao.tokenRejeitado(meterRegistry, "stale_version");
+        this.tamanhoLote = DistributionSummary.builder("auth.introspection.batch.size")
+                .description("Tokens por requisição de introspecção")
+                .register(meterRegistry);
+    }
+
+    public int tamanhoMaximoLote() {
+        return tamanhoMaximoLote;
+    }
+
+    /**
+     * @return um resultado por token, na ordem recebida
+     */
+    public List<ResultadoIntrospeccao> verifica(List<String> tokens) {
+        int total = tokens.size();
+        if (total > tamanhoMaximoLote) {
+            throw new IllegalArgumentException("Máximo de " + tamanhoMaximoLote + " tokens por requisição");
+        }
+        tamanhoLote.record(total);
+        ResultadoIntrospeccao[] resultados = new ResultadoIntrospeccao[total];
+
+        int fatias = Math.min(threads, (total + fatiaMinima - 1) / fatiaMinima);
+        if (fatias <= 1) {
+            verificaFatia(tokens, resultados, 0, total);
+            return Arrays.asList(resultados);
+        }
+
+        int porFatia = (total + fatias - 1) / fatias;
+        List<CompletableFuture<Void>> pendentes = new ArrayList<>(fatias - 1);
+        for (int inicio = porFatia; inicio < total; inicio += porFatia) {
+            int de = inicio;
+            int ate = Math.min(total, inicio + porFatia);
+            pendentes.add(CompletableFuture.runAsync(() -> verificaFatia(tokens, resultados, de, ate), pool));
+        }
+        verificaFatia(tokens, resultados, 0, Math.min(total, porFatia));
+        CompletableFuture.allOf(pendentes.toArray(CompletableFuture[]::new)).join();
+        return Arrays.asList(resultados);
+    }
+
+    private void verificaFatia(List<String> tokens, ResultadoIntrospeccao[] resultados, int de, int ate) {
+        for (int i = de; i < ate; i++) {
+            resultados[i] = verificaToken(tokens.get(i));
+        }
+    }
+
+    /**
+     * Situação de um único token, na thread atual.
+     */
+    public ResultadoIntrospeccao verificaToken(String token) {
+        try {
+            return avalia(token);
+        } catch (RuntimeException e) {
+            // Falha de infraestrutura (banco da versão de segurança, por exemplo) não derruba o lote
+            long suprimidos = logAmostrado.registra(e.getClass());
+            if (suprimidos != LogAmostrado.SUPRIMIDO) {
+                logger.warn("Falha ao verificar token ({} semelhantes suprimidos)", suprimidos, e);
+            }
+            return ResultadoIntrospeccao.inativo("error");
+        }
+    }
+
+    private ResultadoIntrospeccao avalia(String token) {
+        if (!StringUtils.hasText(token)) {
+            return ResultadoIntrospeccao.inativo("empty");
+        }
+        TokenVerificado verificado;
+        try {
+            verificado = tokenCache.verifica(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Já contado em auth.token.rejected pelo JwtTokenProvider
+            return ResultadoIntrospeccao.inativo(MetricasAutenticacao.motivo(e));
+        }
+
+        if (listaRevogacao.revogado(verificado.jti())) {
+            revogados.increment();
+            return ResultadoIntrospeccao.inativo("revoked");
+        }
+
+        if (!verificado.autocontido()) {
+            // Token emitido antes das claims de usuário: o estado vem do usuário em cache, como no filtro
+            try {
+                UsuarioSnapshot usuario = (UsuarioSnapshot) usuarioDetalheService.loadUserByUsername(verificado.username());
+                if (!usuario.isEnabled() || !usuario.isAccountNonLocked()) {
+                    return ResultadoIntrospeccao.inativo("disabled");
+                }
+                return ResultadoIntrospeccao.ativo(usuario.getUsername(), usuario.getId(), usuario.getRole(),
+                        verificado.expiraEmMs());
+            } catch (UsernameNotFoundException e) {
+                return ResultadoIntrospeccao.inativo("user_not_found");
+            }
+        }
+
+        if (versaoSegurancaService.versaoAtual(verificado.userId()) != verificado.versao()) {
+            versaoObsoleta.increment();
+            return ResultadoIntrospeccao.inativo("stale_version");
+        }
+        return ResultadoIntrospeccao.ativo(verificado.username(), verificado.userId(), verificado.role(),
+                verificado.expiraEmMs());
+    }
+
+    @PreDestroy
+    public void encerra() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,111 @@
+package com.tabajara.login.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tabajara.login.cache.CacheExpiravel;
+import com.tabajara.login.model.Usuario;
+import com.tabajara.login.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Corpo de {@code GET /api/auth/profile} já serializado, com o ETag calculado
+ * sobre os próprios bytes, mantido em cache por id do usuário.
+ *
+ * Com o perfil em memória, uma requisição condicional é respondida sem banco
+ * nem serialização. As entradas são invalidadas por {@link UsuarioAlteracaoListener}
+ * e a cada login (que muda {@code ultimoLogin}); alterações feitas por outra
+ * instância aparecem em no máximo {@code auth.perfil-cache.ttl-ms}. Como o
+ * ETag depende só do conteúdo, instâncias diferentes geram o mesmo valor.
+ */
+@Service
+public class PerfilService {
+
+    private final UsuarioRepository usuarioRepository;
+    private final UltimoLoginWriteBehind ultimoLoginWriteBehind;
+    private final ObjectMapper objectMapper;
+    private final CacheExpiravel<Long, Perfil> perfis;
+    private final long ttlMs;
+
+    @Autowired
+    public PerfilService(UsuarioRepository usuarioRepository,
+                         UltimoLoginWriteBehind ultimoLoginWriteBehind,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${auth.perfil-cache.max-size:10000}") int tamanhoMaximo,
+                         @Value("${auth.perfil-cache.ttl-ms:30000}") long ttlMs) {
+        this.usuarioRepository = usuarioRepository;
+        this.ultimoLoginWriteBehind = ultimoLoginWriteBehind;
+        this.objectMapper = objectMapper;
+        this.ttlMs = ttlMs;
+        this.perfis = new CacheExpiravel<>("auth.profile", tamanhoMaximo);
+        this.perfis.registraMetricas(meterRegistry);
+    }
+
+    /**
+     * @return o perfil, ou {@code null} se o usuário não existir mais
+     */
+    public Perfil porId(Long userId) {
+        return perfis.getOuCarrega(userId, id -> monta(usuarioRepository.findById(id).orElse(null)), ttlMs);
+    }
+
+    /**
+     * Para principals sem id (tokens emitidos antes das claims de usuário): sempre consulta o banco.
+     */
+    public Perfil porUsername(String username) {
+        long geracao = perfis.geracao();
+        Usuario usuario = usuarioRepository.findByUsername(username).orElse(null);
+        Perfil perfil = monta(usuario);
+        if (perfil != null) {
+            perfis.putSeGeracao(usuario.getId(), perfil, System.currentTimeMillis() + ttlMs, geracao);
+        }
+        return perfil;
+    }
+
+    public void invalida(Long userId) {
+        perfis.invalida(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.perfil-cache.ttl-ms:30000}")
+    public void limpaExpirados() {
+        perfis.limpaExpirados();
+    }
+
+    private Perfil monta(Usuario usuario) {
+        if (usuario == null) {
+            return null;
+        }
+        // O login mais recente pode ainda estar no buffer de escrita; em microssegundos, como a
+        // coluna o gravará, para que o ETag não mude quando o buffer for descarregado
+        LocalDateTime ultimoLogin = usuario.getUltimoLogin();
+        LocalDateTime pendente = ultimoLoginWriteBehind.pendente(usuario.getId());
+        if (pendente != null && (ultimoLogin == null || pendente.isAfter(ultimoLogin))) {
+            ultimoLogin = pendente.truncatedTo(ChronoUnit.MICROS);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("username", usuario.getUsername());
+        response.put("email", usuario.getEmail());
+        response.put("role", usuario.getRole());
+        response.put("criadoEm", usuario.getCriadoEm());
+        response.put("ultimoLogin", ultimoLogin);
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            return new Perfil(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o perfil de " + usuario.getUsername(), e);
+        }
+    }
+
+    public record Perfil(byte[] json, String etag) {
+    }
+}
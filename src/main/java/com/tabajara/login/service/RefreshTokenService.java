@@ -0,0 +1,161 @@
+package com.tabajara.login.service;
+
+import com.tabajara.login.auditoria.AcaoAuditoria;
+import com.tabajara.login.auditoria.AuditoriaService;
+import com.tabajara.login.exception.RefreshTokenInvalidoException;
+import com.tabajara.login.model.RefreshToken;
+import com.tabajara.login.model.Usuario;
+import com.tabajara.login.model.UsuarioSnapshot;
+import com.tabajara.login.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Emissão e rotação de refresh tokens.
+ *
+ * O valor entregue ao cliente são 32 bytes aleatórios; no banco fica só o
+ * SHA-256. Cada refresh é uma busca pelo hash (com o usuário no mesmo SELECT),
+ * um UPDATE condicional que marca o token como usado e o INSERT do sucessor,
+ * sem verificação de senha.
+ *
+ * Um token já usado que volta a ser apresentado revoga a família toda: ou o
+ * cliente legítimo ou quem o roubou vai tentar usá-lo de novo, e nenhum dos
+ * dois deve continuar renovando a sessão.
+ */
+@Service
+@Transactional(noRollbackFor = RefreshTokenInvalidoException.class)
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int BYTES_TOKEN = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final EntityManager entityManager;
+    private final AuditoriaService auditoriaService;
+    private final SecureRandom random = new SecureRandom();
+    private final Counter reusos;
+
+    @Value("${jwt.refresh.expiration:604800000}")
+    private long expiracaoMs;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               EntityManager entityManager,
+                               AuditoriaService auditoriaService,
+                               MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.entityManager = entityManager;
+        this.auditoriaService = auditoriaService;
+        this.reusos = Counter.builder("auth.refresh.reuse")
+                .description("Refresh tokens reutilizados; a família correspondente foi revogada")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inicia uma família nova para um login com senha.
+     */
+    public String emite(UsuarioSnapshot usuario) {
+        // Referência sem SELECT: só a chave estrangeira é necessária
+        Usuario referencia = entityManager.getReference(Usuario.class, usuario.getId());
+        return grava(referencia, UUID.randomUUID().toString(), usuario.getVersaoSeguranca());
+    }
+
+    /**
+     * Troca um refresh token válido pelo seu sucessor.
+     *
+     * @throws RefreshTokenInvalidoException se o token não puder mais ser usado
+     */
+    public Rotacao rotaciona(String token) {
+        RefreshToken atual = refreshTokenRepository.findByTokenHashComUsuario(digest(token))
+                .orElseThrow(() -> new RefreshTokenInvalidoException("Refresh token inválido"));
+        Usuario usuario = atual.getUsuario();
+        LocalDateTime agora = LocalDateTime.now();
+
+        if (atual.isRevogado()) {
+            throw new RefreshTokenInvalidoException("Refresh token revogado");
+        }
+        if (atual.getUsadoEm() != null || refreshTokenRepository.marcaUsado(atual.getId(), agora) == 0) {
+            reusos.increment();
+            refreshTokenRepository.revogaFamilia(atual.getFamilia());
+            auditoriaService.registra(AcaoAuditoria.REFRESH_REUTILIZADO, usuario.getId(), atual.getFamilia());
+            logger.warn("Refresh token reutilizado pelo usuário {}; família {} revogada", usuario.getId(), atual.getFamilia());
+            throw new RefreshTokenInvalidoException("Refresh token já utilizado");
+        }
+        if (atual.getExpiraEm().isBefore(agora)) {
+            throw new RefreshTokenInvalidoException("Refresh token expirado");
+        }
+        // Senha, papel ou bloqueio mudaram desde o login: exige autenticar de novo
+        if (atual.getVersaoSeguranca() != usuario.getVersaoSeguranca()
+                || !usuario.isEnabled() || !usuario.isAccountNonLocked()) {
+            refreshTokenRepository.revogaFamilia(atual.getFamilia());
+            throw new RefreshTokenInvalidoException("Sessão encerrada; faça login novamente");
+        }
+
+        String novo = grava(usuario, atual.getFamilia(), usuario.getVersaoSeguranca());
+        return new Rotacao(novo, new UsuarioSnapshot(usuario));
+    }
+
+    /**
+     * Revoga a família do token informado, se existir.
+     */
+    public void revoga(String token) {
+        refreshTokenRepository.findByTokenHashComUsuario(digest(token))
+                .ifPresent(refresh -> refreshTokenRepository.revogaFamilia(refresh.getFamilia()));
+    }
+
+    public long getTempoExpiracao() {
+        return expiracaoMs;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.sweep-interval-ms:3600000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void removeExpirados() {
+        int removidos = refreshTokenRepository.removeExpirados(LocalDateTime.now());
+        if (removidos > 0) {
+            logger.debug("{} refresh token(s) expirado(s) removido(s)", removidos);
+        }
+    }
+
+    private String grava(Usuario usuario, String familia, int versaoSeguranca) {
+        byte[] bytes = new byte[BYTES_TOKEN];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime expiraEm = LocalDateTime.now().plusNanos(expiracaoMs * 1_000_000);
+        refreshTokenRepository.save(new RefreshToken(digest(token), usuario, familia, versaoSeguranca, expiraEm));
+        return token;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /**
+     * Resultado de um refresh: o novo refresh token e o usuário para emitir o access token.
+     */
+    public record Rotacao(String refreshToken, UsuarioSnapshot usuario) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.tabajara.login.service;
+
+import com.tabajara.login.model.UsuarioSnapshot;
+import com.tabajara.login.repository.UsuarioRepository;
+import com.tabajara.login.security.PasswordEncoderLimitado;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Regrava, em segundo plano, hashes de senha gerados com parâmetros mais
+ * fracos que os atuais. O login que detecta o hash antigo não espera pela
+ * regravação.
+ */
+@Service
+public class RehashSenhaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RehashSenhaService.class);
+
+    private final PasswordEncoderLimitado passwordEncoder;
+    private final UsuarioRepository usuarioRepository;
+    private final UsuarioDetalheService usuarioDetalheService;
+    private final Set<Long> pendentes = ConcurrentHashMap.newKeySet();
+    private final Counter regravados;
+
+    @Autowired
+    public RehashSenhaService(PasswordEncoderLimitado passwordEncoder,
+                              UsuarioRepository usuarioRepository,
+                              UsuarioDetalheService usuarioDetalheService,
+                              MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.usuarioRepository = usuarioRepository;
+        this.usuarioDetalheService = usuarioDetalheService;
+        this.regravados = Counter.builder("password.rehash")
+                .description("Hashes de senha regravados com os parâmetros atuais")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Agenda a regravação se o hash atual estiver desatualizado. Chamado apenas
+     * depois de um login bem-sucedido, quando a senha em claro já foi validada.
+     */
+    public void regravaSeNecessario(UsuarioSnapshot usuario, String senha) {
+        String hashAtual = usuario.getPassword();
+        if (!passwordEncoder.upgradeEncoding(hashAtual) || !pendentes.add(usuario.getId())) {
+            return;
+        }
+
+        boolean aceito = passwordEncoder.encodeEmSegundoPlano(senha, novoHash -> {
+            try {
+                if (usuarioRepository.regravaHashSenha(usuario.getId(), hashAtual, novoHash) > 0) {
+                    usuarioDetalheService.invalida(usuario.getUsername(), usuario.getEmail());
+                    regravados.increment();
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Falha ao regravar hash de senha do usuário {}", usuario.getId(), e);
+            } finally {
+                pendentes.remove(usuario.getId());
+            }
+        });
+
+        // Pool ocupado: fica para um próximo login
+        if (!aceito) {
+            pendentes.remove(usuario.getId());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.tabajara.login.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Buffer de escrita atrasada para {@code usuarios.ultimo_login}.
+ *
+ * O login só registra o instante em memória, guardando apenas o mais recente
+ * por usuário. Uma thread dedicada grava o buffer em lotes JDBC quando ele
+ * atinge {@code batch-size} ou a cada {@code flush-interval-ms}, e o esvazia no
+ * encerramento. O número de UPDATEs cresce com os usuários distintos por
+ * janela, não com o número de logins.
+ */
+@Component
+public class UltimoLoginWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(UltimoLoginWriteBehind.class);
+
+    private static final String SQL = "UPDATE usuarios SET ultimo_login = ? "
+            + "WHERE id = ? AND (ultimo_login IS NULL OR ultimo_login < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int tamanhoLote;
+    private final ConcurrentHashMap<Long, LocalDateTime> pendentes = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushAgendado = new AtomicBoolean();
+    private final ScheduledExecutorService executor;
+    private final Counter gravados;
+
+    @Autowired
+    public UltimoLoginWriteBehind(JdbcTemplate jdbcTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${auth.ultimo-login.batch-size:500}") int tamanhoLote,
+                                  @Value("${auth.ultimo-login.flush-interval-ms:5000}") long intervaloMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tamanhoLote = tamanhoLote;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ultimo-login-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor.scheduleWithFixedDelay(this::flush, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+
+        this.gravados = Counter.builder("auth.last-login.flushed")
+                .description("Linhas de ultimo_login gravadas em lote")
+                .register(meterRegistry);
+        Gauge.builder("auth.last-login.pending", pendentes, Map::size)
+                .description("Usuários com ultimo_login ainda não gravado")
+                .register(meterRegistry);
+    }
+
+    public void registra(Long userId, LocalDateTime instante) {
+        pendentes.merge(userId, instante, (atual, novo) -> novo.isAfter(atual) ? novo : atual);
+        if (pendentes.size() >= tamanhoLote && flushAgendado.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    flushAgendado.set(false);
+                    flush();
+                });
+            } catch (RejectedExecutionException e) {
+                // Encerrando: o flush final do encerra() grava o que ficou em pendentes
+                flushAgendado.set(false);
+            }
+        }
+    }
+
+    /**
+     * Último login ainda não gravado no banco, se houver.
+     */
+    public LocalDateTime pendente(Long userId) {
+        return pendentes.get(userId);
+    }
+
+    synchronized void flush() {
+        List<Object[]> lote = new ArrayList<>(Math.min(pendentes.size(), tamanhoLote));
+        for (Long userId : pendentes.keySet()) {
+            LocalDateTime instante = pendentes.remove(userId);
+            if (instante == null) {
+                continue;
+            }
+            Timestamp ts = Timestamp.valueOf(instante);
+            lote.add(new Object[]{ts, userId, ts});
+            if (lote.size() == tamanhoLote) {
+                grava(lote);
+                lote = new ArrayList<>(tamanhoLote);
+            }
+        }
+        if (!lote.isEmpty()) {
+            grava(lote);
+        }
+    }
+
+    private void grava(List<Object[]> lote) {
+        try {
+            jdbcTemplate.batchUpdate(SQL, lote);
+            gravados.increment(lote.size());
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao gravar ultimo_login de {} usuário(s); nova tentativa no próximo ciclo", lote.size(), e);
+            for (Object[] linha : lote) {
+                registraSemDisparo((Long) linha[1], ((Timestamp) linha[0]).toLocalDateTime());
+            }
+        }
+    }
+
+    private void registraSemDisparo(Long userId, LocalDateTime instante) {
+        pendentes.merge(userId, instante, (atual, novo) -> novo.isAfter(atual) ? novo : atual);
+    }
+
+    @PreDestroy
+    public void encerra() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+}
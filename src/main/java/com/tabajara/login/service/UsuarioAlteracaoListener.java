@@ -0,0 +1,75 @@
+package com.tabajara.login.service;
+
+import com.tabajara.login.model.Usuario;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Listener JPA de {@link Usuario}: propaga alterações persistidas para os
+ * caches em memória que dependem do estado do usuário.
+ */
+@Component
+public class UsuarioAlteracaoListener {
+
+    private final VersaoSegurancaService versaoSegurancaService;
+    private final UsuarioDetalheService usuarioDetalheService;
+    private final PerfilService perfilService;
+
+    @Autowired
+    public UsuarioAlteracaoListener(@Lazy VersaoSegurancaService versaoSegurancaService,
+                                    @Lazy UsuarioDetalheService usuarioDetalheService,
+                                    @Lazy PerfilService perfilService) {
+        this.versaoSegurancaService = versaoSegurancaService;
+        this.usuarioDetalheService = usuarioDetalheService;
+        this.perfilService = perfilService;
+    }
+
+    @PostUpdate
+    public void aposAtualizar(Usuario usuario) {
+        Long id = usuario.getId();
+        String username = usuario.getUsername();
+        String email = usuario.getEmail();
+        int versao = usuario.isEnabled() && usuario.isAccountNonLocked()
+                ? usuario.getVersaoSeguranca()
+                : VersaoSegurancaService.VERSAO_INVALIDA;
+        // Invalida já, para que leituras dentro da transação não vejam o snapshot antigo,
+        // e de novo após o commit, para descartar o que outra thread carregou nesse meio tempo
+        usuarioDetalheService.invalida(username, email);
+        perfilService.invalida(id);
+        aposCommit(() -> {
+            usuarioDetalheService.invalida(username, email);
+            versaoSegurancaService.atualiza(id, versao);
+            perfilService.invalida(id);
+        });
+    }
+
+    @PostRemove
+    public void aposRemover(Usuario usuario) {
+        Long id = usuario.getId();
+        String username = usuario.getUsername();
+        String email = usuario.getEmail();
+        aposCommit(() -> {
+            usuarioDetalheService.invalida(username, email);
+            versaoSegurancaService.invalida(id);
+            perfilService.invalida(id);
+        });
+    }
+
+    private static void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+}
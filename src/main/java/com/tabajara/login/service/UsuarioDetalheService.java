@@ -1,28 +1,79 @@
 package com.tabajara.login.service;
 
+import com.tabajara.login.cache.CacheExpiravel;
 import com.tabajara.login.model.Usuario;
+import com.tabajara.login.model.UsuarioSnapshot;
 import com.tabajara.login.repository.UsuarioRepository;
+import com.tabajara.login.security.MetricasAutenticacao;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+/**
+ * Carrega usuários para o {@code AuthenticationManager}, mantendo em cache um
+ * {@link UsuarioSnapshot} indexado tanto pelo username quanto pelo email.
+ *
+ * Buscas simultâneas pela mesma chave ausente geram uma única consulta. As
+ * entradas são invalidadas por {@link UsuarioAlteracaoListener} quando o
+ * usuário é atualizado e, em qualquer caso, expiram após {@code auth.usuario-cache.ttl-ms}.
+ */
 @Service
 public class UsuarioDetalheService implements UserDetailsService {
 
     private final UsuarioRepository usuarioRepository;
+    private final CacheExpiravel<String, UsuarioSnapshot> cache;
+    private final long ttlMs;
+    private final Timer tempoBusca;
 
     @Autowired
-    public UsuarioDetalheService(UsuarioRepository usuarioRepository) {
+    public UsuarioDetalheService(UsuarioRepository usuarioRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${auth.usuario-cache.max-size:10000}") int tamanhoMaximo,
+                                 @Value("${auth.usuario-cache.ttl-ms:300000}") long ttlMs) {
         this.usuarioRepository = usuarioRepository;
+        this.ttlMs = ttlMs;
+        this.cache = new CacheExpiravel<>("auth.user-details", tamanhoMaximo);
+        this.cache.registraMetricas(meterRegistry);
+        this.tempoBusca = MetricasAutenticacao.estagio(meterRegistry, MetricasAutenticacao.BUSCA_USUARIO);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Usuario usuario = usuarioRepository.findByUsernameOrEmail(username, username)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + username));
-
+        UsuarioSnapshot usuario = cache.getOuCarrega(username, this::carrega, ttlMs);
+        if (usuario == null) {
+            throw new UsernameNotFoundException("Usuário não encontrado: " + username);
+        }
         return usuario;
     }
+
+    public void invalida(String username, String email) {
+        cache.invalida(username);
+        cache.invalida(email);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.usuario-cache.ttl-ms:300000}")
+    public void limpaExpirados() {
+        cache.limpaExpirados();
+    }
+
+    // Só os misses do cache chegam ao banco e ao timer de user_lookup
+    private UsuarioSnapshot carrega(String login) {
+        long geracao = cache.geracao();
+        Usuario usuario = tempoBusca.record(() -> usuarioRepository.findByUsernameOrEmail(login, login).orElse(null));
+        if (usuario == null) {
+            return null;
+        }
+        UsuarioSnapshot snapshot = new UsuarioSnapshot(usuario);
+        // Deixa a chave alternativa pronta para o próximo login pelo outro identificador; como a
+        // chave principal, não é gravada se o usuário foi alterado durante a consulta
+        String outraChave = login.equals(snapshot.getUsername()) ? snapshot.getEmail() : snapshot.getUsername();
+        cache.putSeGeracao(outraChave, snapshot, System.currentTimeMillis() + ttlMs, geracao);
+        return snapshot;
+    }
 }
@@ -0,0 +1,61 @@
+package com.tabajara.login.service;
+
+import com.tabajara.login.cache.CacheExpiravel;
+import com.tabajara.login.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Mantém em memória a versão de segurança de cada usuário para que o filtro
+ * detecte tokens obsoletos (mudança de papel, senha, bloqueio ou desativação)
+ * sem carregar a entidade.
+ *
+ * Alterações feitas por esta instância atualizam o cache imediatamente; as
+ * feitas fora dela são percebidas em no máximo {@code auth.versao-seguranca.ttl-ms}.
+ */
+@Service
+public class VersaoSegurancaService {
+
+    /** Versão devolvida para usuários inexistentes, inativos ou bloqueados. */
+    public static final int VERSAO_INVALIDA = -1;
+
+    private final UsuarioRepository usuarioRepository;
+    private final CacheExpiravel<Long, Integer> versoes;
+    private final long ttlMs;
+
+    @Autowired
+    public VersaoSegurancaService(UsuarioRepository usuarioRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${auth.versao-seguranca.max-size:50000}") int tamanhoMaximo,
+                                  @Value("${auth.versao-seguranca.ttl-ms:30000}") long ttlMs) {
+        this.usuarioRepository = usuarioRepository;
+        this.ttlMs = ttlMs;
+        this.versoes = new CacheExpiravel<>("auth.security-version", tamanhoMaximo);
+        this.versoes.registraMetricas(meterRegistry);
+    }
+
+    public int versaoAtual(Long userId) {
+        Integer versao = versoes.get(userId);
+        if (versao == null) {
+            versao = usuarioRepository.findVersaoSegurancaAtiva(userId).orElse(VERSAO_INVALIDA);
+            versoes.put(userId, versao, System.currentTimeMillis() + ttlMs);
+        }
+        return versao;
+    }
+
+    public void atualiza(Long userId, int versao) {
+        versoes.put(userId, versao, System.currentTimeMillis() + ttlMs);
+    }
+
+    public void invalida(Long userId) {
+        versoes.invalida(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.versao-seguranca.ttl-ms:30000}")
+    public void limpaExpirados() {
+        versoes.limpaExpirados();
+    }
+}
@@ -0,0 +1,150 @@
+package com.tabajara.login.auditoria;
+
+import com.tabajara.login.auditoria.RingBufferAuditoria.PoliticaOverflow;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingBufferAuditoriaTest {
+
+    private static final long SEM_LIMITE = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void capacidadeEArredondadaParaPotenciaDeDois() {
+        RingBufferAuditoria buffer = new RingBufferAuditoria(5, PoliticaOverflow.DROP, SEM_LIMITE);
+        for (int i = 0; i < 8; i++) {
+            assertThat(buffer.publica(evento(i))).isTrue();
+        }
+
+        assertThat(buffer.publica(evento(8))).isFalse();
+        assertThat(buffer.tamanho()).isEqualTo(8);
+    }
+
+    @Test
+    void mantemAOrdemAoDarVoltasNoBuffer() {
+        RingBufferAuditoria buffer = new RingBufferAuditoria(4, PoliticaOverflow.DROP, SEM_LIMITE);
+        List<EventoAuditoria> drenados = new ArrayList<>();
+
+        // 10 voltas completas em um buffer de 4 posições, com drenagens parciais
+        long proximo = 0;
+        long esperado = 0;
+        for (int volta = 0; volta < 10; volta++) {
+            while (buffer.publica(evento(proximo))) {
+                proximo++;
+            }
+            drenados.clear();
+            buffer.drena(drenados, 3);
+            for (EventoAuditoria evento : drenados) {
+                assertThat(evento.instanteMs()).isEqualTo(esperado++);
+            }
+        }
+        drenados.clear();
+        buffer.drena(drenados, Integer.MAX_VALUE);
+        for (EventoAuditoria evento : drenados) {
+            assertThat(evento.instanteMs()).isEqualTo(esperado++);
+        }
+
+        assertThat(esperado).isEqualTo(proximo);
+        assertThat(buffer.tamanho()).isZero();
+    }
+
+    @Test
+    void dropDescartaEContaQuandoCheio() {
+        RingBufferAuditoria buffer = new RingBufferAuditoria(2, PoliticaOverflow.DROP, SEM_LIMITE);
+        buffer.publica(evento(0));
+        buffer.publica(evento(1));
+
+        assertThat(buffer.publica(evento(2))).isFalse();
+        assertThat(buffer.publica(evento(3))).isFalse();
+        assertThat(buffer.descartados()).isEqualTo(2);
+
+        List<EventoAuditoria> drenados = new ArrayList<>();
+        buffer.drena(drenados, 10);
+        assertThat(drenados).extracting(EventoAuditoria::instanteMs).containsExactly(0L, 1L);
+    }
+
+    @Test
+    void blockEsperaOConsumidorAbrirEspaco() throws Exception {
+        RingBufferAuditoria buffer = new RingBufferAuditoria(2, PoliticaOverflow.BLOCK, SEM_LIMITE);
+        buffer.publica(evento(0));
+        buffer.publica(evento(1));
+
+        CompletableFuture<Boolean> produtor = CompletableFuture.supplyAsync(() -> buffer.publica(evento(2)));
+        Thread.sleep(50);
+        assertThat(produtor).isNotDone();
+
+        buffer.drena(new ArrayList<>(), 1);
+
+        assertThat(produtor.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(buffer.descartados()).isZero();
+    }
+
+    @Test
+    void blockDescartaAposAEsperaMaxima() {
+        RingBufferAuditoria buffer = new RingBufferAuditoria(2, PoliticaOverflow.BLOCK, TimeUnit.MILLISECONDS.toNanos(50));
+        buffer.publica(evento(0));
+        buffer.publica(evento(1));
+
+        long inicio = System.nanoTime();
+        assertThat(buffer.publica(evento(2))).isFalse();
+
+        assertThat(System.nanoTime() - inicio).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(buffer.descartados()).isEqualTo(1);
+    }
+
+    @Test
+    void fechaLiberaProdutoresBloqueados() throws Exception {
+        RingBufferAuditoria buffer = new RingBufferAuditoria(2, PoliticaOverflow.BLOCK, SEM_LIMITE);
+        buffer.publica(evento(0));
+        buffer.publica(evento(1));
+
+        CompletableFuture<Boolean> produtor = CompletableFuture.supplyAsync(() -> buffer.publica(evento(2)));
+        Thread.sleep(50);
+        assertThat(produtor).isNotDone();
+
+        buffer.fecha();
+
+        assertThat(produtor.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(buffer.publica(evento(3))).isFalse();
+        assertThat(buffer.descartados()).isEqualTo(2);
+
+        // O que já estava publicado continua drenável
+        List<EventoAuditoria> drenados = new ArrayList<>();
+        assertThat(buffer.drena(drenados, 10)).isEqualTo(2);
+    }
+
+    @Test
+    void variosProdutoresNaoPerdemEventos() throws Exception {
+        RingBufferAuditoria buffer = new RingBufferAuditoria(64, PoliticaOverflow.BLOCK, SEM_LIMITE);
+        int produtores = 4;
+        int porProdutor = 10_000;
+
+        List<CompletableFuture<Void>> tarefas = new ArrayList<>();
+        for (int p = 0; p < produtores; p++) {
+            tarefas.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < porProdutor; i++) {
+                    buffer.publica(evento(i));
+                }
+            }));
+        }
+
+        List<EventoAuditoria> drenados = new ArrayList<>();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (drenados.size() < produtores * porProdutor && System.nanoTime() < limite) {
+            buffer.drena(drenados, 256);
+        }
+        CompletableFuture.allOf(tarefas.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertThat(drenados).hasSize(produtores * porProdutor);
+        assertThat(buffer.descartados()).isZero();
+    }
+
+    private static EventoAuditoria evento(long sequencia) {
+        return new EventoAuditoria(null, AcaoAuditoria.LOGIN_SUCESSO, null, null, null, sequencia);
+    }
+}
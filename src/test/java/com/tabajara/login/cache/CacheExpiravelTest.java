@@ -0,0 +1,142 @@
+package com.tabajara.login.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheExpiravelTest {
+
+    @Test
+    void entradaExpiradaNaoEDevolvida() throws InterruptedException {
+        CacheExpiravel<String, String> cache = new CacheExpiravel<>("teste", 10);
+        cache.put("a", "valor", System.currentTimeMillis() + 50);
+        assertThat(cache.get("a")).isEqualTo("valor");
+
+        Thread.sleep(80);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.tamanho()).isZero();
+    }
+
+    @Test
+    void putJaExpiradoEIgnorado() {
+        CacheExpiravel<String, String> cache = new CacheExpiravel<>("teste", 10);
+        cache.put("a", "valor", System.currentTimeMillis() - 1);
+
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    void limpaExpiradosRemoveSoAsVencidas() throws InterruptedException {
+        CacheExpiravel<String, String> cache = new CacheExpiravel<>("teste", 10);
+        cache.put("curta", "1", System.currentTimeMillis() + 20);
+        cache.put("longa", "2", System.currentTimeMillis() + 60_000);
+
+        Thread.sleep(40);
+
+        assertThat(cache.limpaExpirados()).isEqualTo(1);
+        assertThat(cache.get("longa")).isEqualTo("2");
+    }
+
+    @Test
+    void tamanhoMaximoERespeitado() {
+        CacheExpiravel<Integer, Integer> cache = new CacheExpiravel<>("teste", 20);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, i, System.currentTimeMillis() + 60_000);
+        }
+
+        assertThat(cache.tamanho()).isLessThanOrEqualTo(20);
+    }
+
+    @Test
+    void carregamentosConcorrentesDaMesmaChaveExecutamUmaVez() throws Exception {
+        CacheExpiravel<String, String> cache = new CacheExpiravel<>("teste", 10);
+        AtomicInteger chamadas = new AtomicInteger();
+        CountDownLatch liberaCarga = new CountDownLatch(1);
+        int threads = 8;
+        CountDownLatch prontas = new CountDownLatch(threads);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> resultados = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                resultados.add(pool.submit(() -> {
+                    prontas.countDown();
+                    return cache.getOuCarrega("chave", chave -> {
+                        chamadas.incrementAndGet();
+                        aguarda(liberaCarga);
+                        return "carregado";
+                    }, 60_000);
+                }));
+            }
+            assertThat(prontas.await(5, TimeUnit.SECONDS)).isTrue();
+            // Dá tempo para todas chegarem ao getOuCarrega antes de a carga terminar
+            Thread.sleep(100);
+            liberaCarga.countDown();
+
+            for (Future<String> resultado : resultados) {
+                assertThat(resultado.get(5, TimeUnit.SECONDS)).isEqualTo("carregado");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(chamadas).hasValue(1);
+        assertThat(cache.get("chave")).isEqualTo("carregado");
+    }
+
+    @Test
+    void falhaDoCarregamentoNaoFicaEmCache() {
+        CacheExpiravel<String, String> cache = new CacheExpiravel<>("teste", 10);
+
+        assertThatThrownBy(() -> cache.getOuCarrega("chave", chave -> {
+            throw new IllegalStateException("banco fora");
+        }, 60_000)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.getOuCarrega("chave", chave -> "ok", 60_000)).isEqualTo("ok");
+    }
+
+    @Test
+    void valorCarregadoAntesDeUmaInvalidacaoNaoEGravado() {
+        CacheExpiravel<String, String> cache = new CacheExpiravel<>("teste", 10);
+
+        String valor = cache.getOuCarrega("chave", chave -> {
+            cache.invalida(chave);
+            return "obsoleto";
+        }, 60_000);
+
+        assertThat(valor).isEqualTo("obsoleto");
+        assertThat(cache.get("chave")).isNull();
+    }
+
+    @Test
+    void putSeGeracaoDescartaValorDeGeracaoAnterior() {
+        CacheExpiravel<String, String> cache = new CacheExpiravel<>("teste", 10);
+        long geracao = cache.geracao();
+        cache.invalida("outra");
+
+        assertThat(cache.putSeGeracao("chave", "obsoleto", System.currentTimeMillis() + 60_000, geracao)).isFalse();
+        assertThat(cache.get("chave")).isNull();
+
+        assertThat(cache.putSeGeracao("chave", "atual", System.currentTimeMillis() + 60_000, cache.geracao())).isTrue();
+        assertThat(cache.get("chave")).isEqualTo("atual");
+    }
+
+    private static void aguarda(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.tabajara.login.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FiltroBloomTest {
+
+    @Test
+    void naoDaFalsoNegativo() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.adiciona("usuario" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filtro.talvezContenha("usuario" + i)).as("usuario" + i).isTrue();
+        }
+        assertThat(filtro.insercoes()).isEqualTo(10_000);
+    }
+
+    @Test
+    void naoDaFalsoNegativoComInsercoesConcorrentes() throws Exception {
+        FiltroBloom filtro = new FiltroBloom(40_000, 0.01);
+        int threads = 4;
+        int porThread = 10_000;
+
+        List<CompletableFuture<Void>> tarefas = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int prefixo = t;
+            tarefas.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < porThread; i++) {
+                    filtro.adiciona(prefixo + "-" + i);
+                }
+            }));
+        }
+        CompletableFuture.allOf(tarefas.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < porThread; i++) {
+                assertThat(filtro.talvezContenha(t + "-" + i)).as(t + "-" + i).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void taxaDeFalsoPositivoFicaPertoDaConfigurada() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.adiciona("usuario" + i);
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filtro.talvezContenha("ausente" + i)) {
+                falsosPositivos++;
+            }
+        }
+
+        // Margem folgada: o objetivo é pegar um filtro que responde sempre true
+        assertThat(falsosPositivos / 100_000.0).isLessThan(0.03);
+    }
+
+    @Test
+    void filtroVazioNaoContemNada() {
+        FiltroBloom filtro = new FiltroBloom(100, 0.01);
+
+        assertThat(filtro.talvezContenha("joao")).isFalse();
+        assertThat(filtro.talvezContenha("")).isFalse();
+    }
+
+    @Test
+    void parametrosInvalidosSaoRecusados() {
+        assertThatThrownBy(() -> new FiltroBloom(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new FiltroBloom(100, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new FiltroBloom(100, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
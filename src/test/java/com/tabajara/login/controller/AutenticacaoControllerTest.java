@@ -0,0 +1,55 @@
+package com.tabajara.login.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AutenticacaoControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void registroComUsernameRepetidoERecusado() throws Exception {
+        String username = novoNome();
+        registra(username, username + "@exemplo.com").andExpect(status().isCreated());
+
+        registra(username, novoNome() + "@exemplo.com")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Username já está em uso!"));
+    }
+
+    @Test
+    void registroComEmailRepetidoERecusado() throws Exception {
+        String email = novoNome() + "@exemplo.com";
+        registra(novoNome(), email).andExpect(status().isCreated());
+
+        registra(novoNome(), email)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Email já está em uso!"));
+    }
+
+    private ResultActions registra(String username, String email) throws Exception {
+        return mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"email\":\"" + email + "\",\"password\":\"segredo1\"}"));
+    }
+
+    private static String novoNome() {
+        return "u" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
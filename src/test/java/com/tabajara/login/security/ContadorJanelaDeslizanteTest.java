@@ -0,0 +1,128 @@
+package com.tabajara.login.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContadorJanelaDeslizanteTest {
+
+    // Janela de 60 s em 6 baldes de 10 s; T0 cai no início de um balde
+    private static final long JANELA_MS = 60_000;
+    private static final long BALDE_MS = 10_000;
+    private static final long T0 = 1_000_000;
+
+    @Test
+    void totalSomaOsBaldesDentroDaJanela() {
+        ContadorJanelaDeslizante contador = new ContadorJanelaDeslizante(JANELA_MS, 6, 100);
+
+        assertThat(contador.registra("joao", T0)).isEqualTo(1);
+        assertThat(contador.registra("joao", T0 + 1)).isEqualTo(2);
+        assertThat(contador.registra("joao", T0 + BALDE_MS)).isEqualTo(3);
+        assertThat(contador.registra("maria", T0 + BALDE_MS)).isEqualTo(1);
+
+        assertThat(contador.total("joao", T0 + BALDE_MS)).isEqualTo(3);
+        assertThat(contador.total("ninguem", T0)).isZero();
+    }
+
+    @Test
+    void baldesAntigosSaemDaJanela() {
+        ContadorJanelaDeslizante contador = new ContadorJanelaDeslizante(JANELA_MS, 6, 100);
+        registraVarias(contador, "joao", 3, T0);
+        registraVarias(contador, "joao", 2, T0 + BALDE_MS);
+
+        assertThat(contador.total("joao", T0 + JANELA_MS - 1)).isEqualTo(5);
+        assertThat(contador.total("joao", T0 + JANELA_MS)).isEqualTo(2);
+        assertThat(contador.total("joao", T0 + JANELA_MS + BALDE_MS)).isZero();
+    }
+
+    @Test
+    void baldeReaproveitadoNaVoltaSeguinteRecomecaDoZero() {
+        ContadorJanelaDeslizante contador = new ContadorJanelaDeslizante(JANELA_MS, 6, 100);
+        registraVarias(contador, "joao", 4, T0);
+
+        // Mesmo índice de balde, uma volta depois
+        assertThat(contador.registra("joao", T0 + JANELA_MS)).isEqualTo(1);
+    }
+
+    @Test
+    void msAteFicarAbaixoEsperaOsBaldesMaisAntigosSairem() {
+        ContadorJanelaDeslizante contador = new ContadorJanelaDeslizante(JANELA_MS, 6, 100);
+        registraVarias(contador, "joao", 3, T0);
+        registraVarias(contador, "joao", 2, T0 + BALDE_MS);
+        long agora = T0 + 2 * BALDE_MS;
+
+        // Basta o balde de T0 sair: ele deixa a janela em T0 + 60 s
+        assertThat(contador.msAteFicarAbaixo("joao", 5, agora)).isEqualTo(T0 + JANELA_MS - agora);
+        // É preciso que os dois baldes saiam
+        assertThat(contador.msAteFicarAbaixo("joao", 2, agora)).isEqualTo(T0 + BALDE_MS + JANELA_MS - agora);
+    }
+
+    @Test
+    void msAteFicarAbaixoEZeroQuandoJaEstaAbaixo() {
+        ContadorJanelaDeslizante contador = new ContadorJanelaDeslizante(JANELA_MS, 6, 100);
+        registraVarias(contador, "joao", 3, T0);
+
+        assertThat(contador.msAteFicarAbaixo("joao", 4, T0)).isZero();
+        assertThat(contador.msAteFicarAbaixo("ninguem", 1, T0)).isZero();
+        // Depois que a janela passou, nada mais conta
+        assertThat(contador.msAteFicarAbaixo("joao", 1, T0 + JANELA_MS)).isZero();
+    }
+
+    @Test
+    void comOMapaCheioChavesNovasSoEntramDepoisQueAsInativasSaem() {
+        ContadorJanelaDeslizante contador = new ContadorJanelaDeslizante(JANELA_MS, 6, 2);
+        contador.registra("a", T0);
+        contador.registra("b", T0);
+
+        assertThat(contador.registra("c", T0 + BALDE_MS)).isZero();
+        assertThat(contador.tamanho()).isEqualTo(2);
+
+        assertThat(contador.registra("c", T0 + JANELA_MS)).isEqualTo(1);
+        assertThat(contador.tamanho()).isEqualTo(1);
+    }
+
+    @Test
+    void limpaZeraAChave() {
+        ContadorJanelaDeslizante contador = new ContadorJanelaDeslizante(JANELA_MS, 6, 100);
+        registraVarias(contador, "joao", 3, T0);
+
+        contador.limpa("joao");
+
+        assertThat(contador.total("joao", T0)).isZero();
+    }
+
+    @Test
+    void incrementosConcorrentesNoMesmoBaldeNaoSePerdem() throws Exception {
+        ContadorJanelaDeslizante contador = new ContadorJanelaDeslizante(JANELA_MS, 6, 100);
+        int threads = 4;
+        int porThread = 10_000;
+
+        List<CompletableFuture<Void>> tarefas = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tarefas.add(CompletableFuture.runAsync(() -> registraVarias(contador, "joao", porThread, T0)));
+        }
+        CompletableFuture.allOf(tarefas.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertThat(contador.total("joao", T0)).isEqualTo((long) threads * porThread);
+    }
+
+    @Test
+    void janelaMenorQueOsBaldesERecusada() {
+        assertThatThrownBy(() -> new ContadorJanelaDeslizante(5, 6, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ContadorJanelaDeslizante(JANELA_MS, 0, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void registraVarias(ContadorJanelaDeslizante contador, String chave, int vezes, long agoraMs) {
+        for (int i = 0; i < vezes; i++) {
+            contador.registra(chave, agoraMs);
+        }
+    }
+}
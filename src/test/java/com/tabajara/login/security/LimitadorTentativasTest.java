@@ -0,0 +1,89 @@
+package com.tabajara.login.security;
+
+import com.tabajara.login.exception.MuitasTentativasException;
+import com.tabajara.login.service.BloqueioContaService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class LimitadorTentativasTest {
+
+    private BloqueioContaService bloqueioContaService;
+    private LimitadorTentativas limitador;
+
+    @BeforeEach
+    void configura() {
+        bloqueioContaService = mock(BloqueioContaService.class);
+        limitador = new LimitadorTentativas(bloqueioContaService, new SimpleMeterRegistry(), 900, 15, 1000);
+        ReflectionTestUtils.setField(limitador, "habilitado", true);
+        ReflectionTestUtils.setField(limitador, "limiteConta", 5L);
+        ReflectionTestUtils.setField(limitador, "limiteIp", 1000L);
+        ReflectionTestUtils.setField(limitador, "limiteBloqueio", 10L);
+        ReflectionTestUtils.setField(limitador, "duracaoBloqueioSegundos", 900L);
+    }
+
+    @Test
+    void bloqueiaQuandoAContagemPassaDoLimiteSemCairNele() {
+        // Falhas de logins paralelos que passaram pelo verifica antes do limite: a contagem salta de 0 a 12
+        for (int i = 0; i < 12; i++) {
+            limitador.registraFalha("Joao", "10.0.0." + i);
+        }
+
+        assertThatThrownBy(() -> limitador.verifica("joao", "10.0.0.99"))
+                .isInstanceOf(MuitasTentativasException.class);
+
+        verify(bloqueioContaService).bloqueia("joao", Duration.ofSeconds(900));
+    }
+
+    @Test
+    void naoPedeOBloqueioDeNovoACadaTentativaRecusada() {
+        for (int i = 0; i < 12; i++) {
+            limitador.registraFalha("joao", null);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> limitador.verifica("joao", null))
+                    .isInstanceOf(MuitasTentativasException.class);
+        }
+
+        verify(bloqueioContaService, times(1)).bloqueia(anyString(), any());
+    }
+
+    @Test
+    void abaixoDoLimiteDeBloqueioSoRecusa() {
+        for (int i = 0; i < 5; i++) {
+            limitador.registraFalha("joao", null);
+        }
+
+        assertThatThrownBy(() -> limitador.verifica("joao", null))
+                .isInstanceOf(MuitasTentativasException.class);
+
+        verify(bloqueioContaService, never()).bloqueia(anyString(), any());
+    }
+
+    @Test
+    void liberaPermiteBloquearDeNovo() {
+        for (int i = 0; i < 12; i++) {
+            limitador.registraFalha("joao", null);
+        }
+        assertThatThrownBy(() -> limitador.verifica("joao", null)).isInstanceOf(MuitasTentativasException.class);
+
+        limitador.libera("joao");
+        for (int i = 0; i < 12; i++) {
+            limitador.registraFalha("joao", null);
+        }
+        assertThatThrownBy(() -> limitador.verifica("joao", null)).isInstanceOf(MuitasTentativasException.class);
+
+        verify(bloqueioContaService, times(2)).bloqueia(anyString(), any());
+    }
+}
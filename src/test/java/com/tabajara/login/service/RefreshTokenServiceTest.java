@@ -0,0 +1,118 @@
+package com.tabajara.login.service;
+
+import com.tabajara.login.exception.RefreshTokenInvalidoException;
+import com.tabajara.login.model.Role;
+import com.tabajara.login.model.Usuario;
+import com.tabajara.login.model.UsuarioSnapshot;
+import com.tabajara.login.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Usuario usuario;
+
+    @BeforeEach
+    void criaUsuario() {
+        // Um usuário por teste, para as famílias não se misturarem
+        String nome = "u" + UUID.randomUUID().toString().substring(0, 8);
+        usuario = usuarioRepository.save(new Usuario(nome, nome + "@exemplo.com", "hash", Role.USUARIO));
+    }
+
+    @Test
+    void rotacaoTrocaOTokenPeloSucessor() {
+        String primeiro = refreshTokenService.emite(new UsuarioSnapshot(usuario));
+
+        RefreshTokenService.Rotacao rotacao = refreshTokenService.rotaciona(primeiro);
+
+        assertThat(rotacao.refreshToken()).isNotEqualTo(primeiro);
+        assertThat(rotacao.usuario().getId()).isEqualTo(usuario.getId());
+        assertThat(refreshTokenService.rotaciona(rotacao.refreshToken()).refreshToken()).isNotBlank();
+    }
+
+    @Test
+    void reusoRevogaAFamiliaToda() {
+        String primeiro = refreshTokenService.emite(new UsuarioSnapshot(usuario));
+        String segundo = refreshTokenService.rotaciona(primeiro).refreshToken();
+
+        assertThatThrownBy(() -> refreshTokenService.rotaciona(primeiro))
+                .isInstanceOf(RefreshTokenInvalidoException.class)
+                .hasMessage("Refresh token já utilizado");
+
+        // O sucessor legítimo também deixa de valer
+        assertThatThrownBy(() -> refreshTokenService.rotaciona(segundo))
+                .isInstanceOf(RefreshTokenInvalidoException.class)
+                .hasMessage("Refresh token revogado");
+        assertThat(revogadosDoUsuario()).containsExactly(true, true);
+    }
+
+    @Test
+    void novaVersaoDeSegurancaEncerraAFamilia() {
+        String primeiro = refreshTokenService.emite(new UsuarioSnapshot(usuario));
+        String segundo = refreshTokenService.rotaciona(primeiro).refreshToken();
+
+        jdbcTemplate.update("UPDATE usuarios SET versao_seguranca = versao_seguranca + 1 WHERE id = ?", usuario.getId());
+
+        assertThatThrownBy(() -> refreshTokenService.rotaciona(segundo))
+                .isInstanceOf(RefreshTokenInvalidoException.class)
+                .hasMessage("Sessão encerrada; faça login novamente");
+        assertThat(revogadosDoUsuario()).containsExactly(true, true);
+    }
+
+    @Test
+    void contaBloqueadaEncerraAFamilia() {
+        String primeiro = refreshTokenService.emite(new UsuarioSnapshot(usuario));
+
+        jdbcTemplate.update("UPDATE usuarios SET conta_nao_bloqueada = false WHERE id = ?", usuario.getId());
+
+        assertThatThrownBy(() -> refreshTokenService.rotaciona(primeiro))
+                .isInstanceOf(RefreshTokenInvalidoException.class)
+                .hasMessage("Sessão encerrada; faça login novamente");
+        assertThat(revogadosDoUsuario()).containsExactly(true);
+    }
+
+    @Test
+    void revogaEncerraAFamilia() {
+        String primeiro = refreshTokenService.emite(new UsuarioSnapshot(usuario));
+        String segundo = refreshTokenService.rotaciona(primeiro).refreshToken();
+
+        refreshTokenService.revoga(primeiro);
+
+        assertThatThrownBy(() -> refreshTokenService.rotaciona(segundo))
+                .isInstanceOf(RefreshTokenInvalidoException.class)
+                .hasMessage("Refresh token revogado");
+    }
+
+    @Test
+    void tokenDesconhecidoERecusado() {
+        assertThatThrownBy(() -> refreshTokenService.rotaciona("nao-existe"))
+                .isInstanceOf(RefreshTokenInvalidoException.class)
+                .hasMessage("Refresh token inválido");
+    }
+
+    private List<Boolean> revogadosDoUsuario() {
+        return jdbcTemplate.queryForList("SELECT revogado FROM refresh_tokens WHERE usuario_id = ? ORDER BY id",
+                Boolean.class, usuario.getId());
+    }
+}
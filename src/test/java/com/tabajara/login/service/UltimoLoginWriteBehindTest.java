@@ -0,0 +1,26 @@
+package com.tabajara.login.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.mock;
+
+class UltimoLoginWriteBehindTest {
+
+    @Test
+    void registraDepoisDoEncerramentoNaoFalhaOLogin() throws Exception {
+        UltimoLoginWriteBehind writeBehind = new UltimoLoginWriteBehind(
+                mock(JdbcTemplate.class), new SimpleMeterRegistry(), 1, 60_000);
+        writeBehind.encerra();
+
+        LocalDateTime agora = LocalDateTime.now();
+        // Lote de 1: o registro tenta disparar um flush no executor já encerrado
+        assertThatCode(() -> writeBehind.registra(1L, agora)).doesNotThrowAnyException();
+        assertThat(writeBehind.pendente(1L)).isEqualTo(agora);
+    }
+}